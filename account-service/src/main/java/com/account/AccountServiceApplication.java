@@ -2,12 +2,10 @@ package com.account;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.retry.annotation.EnableRetry;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.account", "com.finances.common"})
 @EnableRetry
-@EnableJpaRepositories(basePackages = "com.account.repository")
 public class AccountServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,133 @@
+package com.account.config;
+
+import com.account.dto.ClientDTO;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.finances.common.config.BinaryCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.finances.common.config.BinaryCodec.*;
+
+/**
+ * Binary codecs for the types account-service sends and receives over RabbitMQ. The
+ * tags are part of the wire format: client-service encodes its Client with tag 1 in the
+ * same field order as {@link #CLIENT}.
+ */
+public final class AccountCodecs {
+
+    public static final BinaryCodec<ClientDTO> CLIENT = new BinaryCodec<>() {
+        @Override
+        public int tag() {
+            return 1;
+        }
+
+        @Override
+        public Class<ClientDTO> type() {
+            return ClientDTO.class;
+        }
+
+        @Override
+        public void write(ClientDTO client, DataOutput out) throws IOException {
+            writeUuid(out, client.getClientId());
+            writeLong(out, client.getId());
+            writeString(out, client.getName());
+            writeString(out, client.getGender());
+            writeInteger(out, client.getAge());
+            writeString(out, client.getIdentification());
+            writeString(out, client.getAddress());
+            writeString(out, client.getPhone());
+            out.writeBoolean(Boolean.TRUE.equals(client.getStatus()));
+        }
+
+        @Override
+        public ClientDTO read(DataInput in) throws IOException {
+            ClientDTO client = new ClientDTO();
+            client.setClientId(readUuid(in));
+            client.setId(readLong(in));
+            client.setName(readString(in));
+            client.setGender(readString(in));
+            client.setAge(readInteger(in));
+            client.setIdentification(readString(in));
+            client.setAddress(readString(in));
+            client.setPhone(readString(in));
+            client.setStatus(in.readBoolean());
+            return client;
+        }
+    };
+
+    public static final BinaryCodec<Account> ACCOUNT = new BinaryCodec<>() {
+        @Override
+        public int tag() {
+            return 2;
+        }
+
+        @Override
+        public Class<Account> type() {
+            return Account.class;
+        }
+
+        @Override
+        public void write(Account account, DataOutput out) throws IOException {
+            writeUuid(out, account.getAccountId());
+            writeLong(out, account.getAccountNumber());
+            writeString(out, account.getAccountType());
+            writeDouble(out, account.getBalance());
+            out.writeBoolean(account.isStatus());
+            writeUuid(out, account.getClientId());
+        }
+
+        @Override
+        public Account read(DataInput in) throws IOException {
+            Account account = new Account();
+            account.setAccountId(readUuid(in));
+            account.setAccountNumber(readLong(in));
+            account.setAccountType(readString(in));
+            account.setBalance(readDouble(in));
+            account.setStatus(in.readBoolean());
+            account.setClientId(readUuid(in));
+            return account;
+        }
+    };
+
+    public static final BinaryCodec<Transaction> TRANSACTION = new BinaryCodec<>() {
+        @Override
+        public int tag() {
+            return 3;
+        }
+
+        @Override
+        public Class<Transaction> type() {
+            return Transaction.class;
+        }
+
+        @Override
+        public void write(Transaction transaction, DataOutput out) throws IOException {
+            writeUuid(out, transaction.getTransactionId());
+            writeUuid(out, transaction.getClientId());
+            writeUuid(out, transaction.getAccountId());
+            out.writeDouble(transaction.getAmount());
+            out.writeBoolean(transaction.isCredit());
+            writeDateTime(out, transaction.getTransactionDate());
+            writeDouble(out, transaction.getAvailableBalance());
+        }
+
+        @Override
+        public Transaction read(DataInput in) throws IOException {
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId(readUuid(in));
+            transaction.setClientId(readUuid(in));
+            transaction.setAccountId(readUuid(in));
+            transaction.setAmount(in.readDouble());
+            transaction.setCredit(in.readBoolean());
+            transaction.setTransactionDate(readDateTime(in));
+            transaction.setAvailableBalance(readDouble(in));
+            return transaction;
+        }
+    };
+
+    private AccountCodecs() {
+    }
+}
@@ -1,6 +1,7 @@
 package com.account.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,13 +15,52 @@ public class AccountServiceConfig {
     public static final String ACCOUNT_REQUEST_ROUTING_KEY = "account.request";
     public static final String ACCOUNT_RESPONSE_ROUTING_KEY = "account.response";
 
+    // Chunked replies to GetAllAccounts: the request carries the size, credit, first sequence
+    // number and cursor; every reply chunk carries its sequence number, cursor and end marker
+    public static final String GET_ALL_ACCOUNTS_REQUEST = "GetAllAccounts";
+    public static final String CHUNK_SIZE_HEADER = "x-chunk-size";
+    public static final String CHUNK_CREDIT_HEADER = "x-chunk-credit";
+    public static final String CHUNK_SEQ_HEADER = "x-chunk-seq";
+    public static final String CHUNK_CURSOR_HEADER = "x-chunk-cursor";
+    public static final String CHUNK_LAST_HEADER = "x-chunk-last";
+
     public static final String TRANSACTION_EXCHANGE = "transaction.exchange";
     public static final String TRANSACTION_CREATION_ROUTING_KEY = "transaction.creation";
     public static final String TRANSACTION_QUEUE = "transaction.queue";
+    public static final String TRANSACTION_DEAD_LETTER_EXCHANGE = "transaction.dlx";
+    public static final String TRANSACTION_DEAD_LETTER_QUEUE = "transaction.dlq";
+
+    @Value("${transaction.consumer.max-deliveries:5}")
+    private int transactionMaxDeliveries;
 
+    /**
+     * Quorum queue, so redeliveries carry an x-delivery-count header. Rejected transactions
+     * and those still failing after {@code transaction.consumer.max-deliveries} attempts are
+     * dead-lettered to transaction.dlq; the broker's delivery limit backs up the listener's.
+     */
     @Bean
     public Queue transactionQueue() {
-        return new Queue(TRANSACTION_QUEUE, true);
+        return QueueBuilder.durable(TRANSACTION_QUEUE)
+                .quorum()
+                .deliveryLimit(transactionMaxDeliveries)
+                .deadLetterExchange(TRANSACTION_DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(TRANSACTION_CREATION_ROUTING_KEY)
+                .build();
+    }
+
+    @Bean
+    public Queue transactionDeadLetterQueue() {
+        return new Queue(TRANSACTION_DEAD_LETTER_QUEUE, true);
+    }
+
+    @Bean
+    public DirectExchange transactionDeadLetterExchange() {
+        return new DirectExchange(TRANSACTION_DEAD_LETTER_EXCHANGE);
+    }
+
+    @Bean
+    public Binding transactionDeadLetterBinding(Queue transactionDeadLetterQueue, DirectExchange transactionDeadLetterExchange) {
+        return BindingBuilder.bind(transactionDeadLetterQueue).to(transactionDeadLetterExchange).with(TRANSACTION_CREATION_ROUTING_KEY);
     }
 
     @Bean
@@ -0,0 +1,58 @@
+package com.account.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for report work. With {@code spring.threads.virtual.enabled=true} (the
+ * {@code virtual} profile) they run on virtual threads like Tomcat and the listener
+ * containers do.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Runs the remote client lookup of a report while the request thread queries the database
+    @Bean
+    public AsyncTaskExecutor reportExecutor(@Value("${report.executor.pool-size:16}") int poolSize) {
+        if (virtualThreads) {
+            // A blocked lookup only parks its virtual thread, so there is no pool to size
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("report-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        executor.setThreadNamePrefix("report-");
+        // When saturated, do the lookup on the caller's thread instead of failing the report
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // Runs report jobs off the request threads; a full queue rejects new jobs instead of piling them up.
+    // Jobs hold database connections, so the pool stays bounded even on virtual threads.
+    @Bean
+    public ThreadPoolTaskExecutor reportJobExecutor(@Value("${report.jobs.pool-size:4}") int poolSize,
+                                                    @Value("${report.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-job-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("report-job-", 0).factory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -1,14 +1,21 @@
 package com.account.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 
 import com.account.service.ClientServiceCommunicator;
+import com.finances.common.config.BinaryMessageConverter;
+import com.finances.common.listener.RabbitListenerMetrics;
 
 @Configuration
 public class RabbitMQConfig {
@@ -16,6 +23,24 @@ public class RabbitMQConfig {
     public static final String CLIENT_REQUEST_QUEUE = "client.request.queue";
     public static final String CLIENT_RESPONSE_QUEUE = "client.response.queue";
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${transaction.consumer.concurrency:4}")
+    private int transactionConsumers;
+
+    @Value("${transaction.consumer.max-concurrency:8}")
+    private int transactionMaxConsumers;
+
+    @Value("${transaction.consumer.batch-size:250}")
+    private int transactionBatchSize;
+
+    @Value("${transaction.consumer.prefetch:500}")
+    private int transactionPrefetch;
+
+    @Value("${transaction.consumer.batch-timeout-ms:100}")
+    private long transactionBatchTimeoutMs;
+
     @Bean
     public Queue clientRequestQueue() {
         return new Queue(CLIENT_REQUEST_QUEUE, true);
@@ -26,24 +51,84 @@ public class RabbitMQConfig {
         return new Queue(CLIENT_RESPONSE_QUEUE, false);
     }
 
+    @Value("${messaging.binary.enabled:false}")
+    private boolean binaryMessages;
+
+    @Value("${messaging.binary.compress-threshold:65536}")
+    private int binaryCompressThreshold;
+
+    @Value("${messaging.binary.max-inflated-bytes:16777216}")
+    private int binaryMaxInflatedBytes;
+
+    /**
+     * Reads binary messages (see {@link BinaryMessageConverter}) and JSON; sends binary for
+     * accounts, transactions and clients only when {@code messaging.binary.enabled} is set.
+     */
     @Bean
-    public Jackson2JsonMessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public BinaryMessageConverter messageConverter() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(new Jackson2JsonMessageConverter(),
+                binaryMessages, binaryCompressThreshold,
+                AccountCodecs.CLIENT, AccountCodecs.ACCOUNT, AccountCodecs.TRANSACTION);
+        // Consumers deduplicate by message id, so every message we send carries one
+        converter.setCreateMessageIds(true);
+        converter.setMaxInflatedBytes(binaryMaxInflatedBytes);
+        return converter.warmUp();
     }
 
     @Bean
-    public SimpleMessageListenerContainer messageListenerContainer(ConnectionFactory connectionFactory, MessageListenerAdapter listenerAdapter) {
+    public SimpleMessageListenerContainer messageListenerContainer(ConnectionFactory connectionFactory, MessageListenerAdapter listenerAdapter,
+                                                                   RabbitListenerMetrics rabbitListenerMetrics) {
         SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
         container.setQueueNames(CLIENT_RESPONSE_QUEUE);
         container.setMessageListener(listenerAdapter);
+        rabbitListenerMetrics.instrument(container);
+        if (virtualThreads) {
+            // @RabbitListener containers get this from Spring Boot; this one is built by hand
+            container.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-listener-"));
+        }
         return container;
     }
 
+    // Replaces Spring Boot's default factory for @RabbitListener methods, to add listener metrics
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            RabbitListenerMetrics rabbitListenerMetrics) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        rabbitListenerMetrics.instrument(factory);
+        return factory;
+    }
+
+    /**
+     * Container factory for transaction.queue. Each consumer hands its listener up to
+     * {@code transaction.consumer.batch-size} deliveries at a time, or whatever arrived
+     * within the batch timeout. The prefetch keeps the next batch on the wire while the
+     * current one is posted, and the listener acknowledges by hand once postings commit.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            RabbitListenerMetrics rabbitListenerMetrics) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(transactionBatchSize);
+        factory.setReceiveTimeout(transactionBatchTimeoutMs);
+        factory.setPrefetchCount(Math.max(transactionPrefetch, transactionBatchSize));
+        factory.setConcurrentConsumers(transactionConsumers);
+        factory.setMaxConcurrentConsumers(Math.max(transactionConsumers, transactionMaxConsumers));
+        rabbitListenerMetrics.instrument(factory);
+        return factory;
+    }
+
     @Bean
     public MessageListenerAdapter listenerAdapter(ClientServiceCommunicator clientServiceCommunicator) {
         MessageListenerAdapter listenerAdapter = new MessageListenerAdapter(clientServiceCommunicator, "handleClientResponse");
-        listenerAdapter.setMessageConverter(jsonMessageConverter());
+        listenerAdapter.setMessageConverter(messageConverter());
         return listenerAdapter;
     }
 }
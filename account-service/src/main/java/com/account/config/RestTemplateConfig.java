@@ -1,15 +1,73 @@
 package com.account.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
+/**
+ * HTTP client for calls to client-service. Connections are pooled and kept alive
+ * between calls, and every call is bounded: waiting for a pooled connection, opening
+ * one and waiting for the response each have their own deadline, so a slow
+ * client-service fails requests fast instead of tying up request threads.
+ */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${client.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${client.http.connection-request-timeout:500ms}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${client.http.connect-timeout:1s}")
+    private Duration connectTimeout;
+
+    @Value("${client.http.read-timeout:3s}")
+    private Duration readTimeout;
+
+    @Value("${client.http.keep-alive:15s}")
+    private Duration keepAlive;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient clientServiceHttpClient() {
+        // Every call goes to the same host, so one route may use the whole pool
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        // Idle connections are dropped before Tomcat's 20s keep-alive closes them server-side
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient clientServiceHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(clientServiceHttpClient));
     }
 }
-
@@ -2,11 +2,13 @@ package com.account.controller;
 
 import com.account.entity.Account;
 import com.account.service.AccountService;
+import com.finances.common.dto.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,8 +20,10 @@ public class AccountController {
     private AccountService accountService;
 
     @GetMapping
-    public List<Account> getAllAccounts() {
-        return accountService.getAllAccounts();
+    public KeysetPage<Account> getAllAccounts(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return accountService.getAccountsPage(KeysetPage.decodeCursor(after), KeysetPage.clampLimit(limit));
     }
 
     @GetMapping("/{accountId}")
@@ -41,8 +45,8 @@ public class AccountController {
     }
 
     @PatchMapping("/{accountId}")
-    public ResponseEntity<Account> partialUpdateAccount(@PathVariable UUID accountId, @RequestBody Account accountDetails) {
-        Account updatedAccount = accountService.partialUpdateAccount(accountId, accountDetails);
+    public ResponseEntity<Account> partialUpdateAccount(@PathVariable UUID accountId, @RequestBody Map<String, Object> updates) {
+        Account updatedAccount = accountService.partialUpdateAccount(accountId, updates);
         return updatedAccount != null ? ResponseEntity.ok(updatedAccount) : ResponseEntity.notFound().build();
     }
 
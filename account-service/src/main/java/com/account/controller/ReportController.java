@@ -1,19 +1,32 @@
 package com.account.controller;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.account.dto.ReportJob;
+import com.account.service.ReportJobService;
 import com.account.service.ReportService;
+import com.account.service.StatementExportService;
 
 @RestController
 @RequestMapping("/reportes")
@@ -22,6 +35,14 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private StatementExportService statementExportService;
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @GetMapping("/reportes")
 public ResponseEntity<?> generateReport(
     @RequestParam String fecha,
@@ -40,4 +61,78 @@ public ResponseEntity<?> generateReport(
     }
 }
 
+    // Statement written row by row from a database cursor, as CSV (default) or PDF
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReport(@RequestParam String fecha,
+                                                              @RequestParam UUID client,
+                                                              @RequestParam(defaultValue = "csv") String format) {
+        LocalDateTime[] range = parseDateRange(fecha);
+        boolean pdf;
+        if ("pdf".equalsIgnoreCase(format)) {
+            pdf = true;
+        } else if ("csv".equalsIgnoreCase(format)) {
+            pdf = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported format '" + format + "'. Use 'csv' or 'pdf'");
+        }
+
+        StatementExportService.Statement statement = statementExportService.open(client, range[0], range[1]);
+        StreamingResponseBody body = pdf
+                ? out -> statementExportService.writePdf(statement, out)
+                : out -> statementExportService.writeCsv(statement, out);
+        return ResponseEntity.ok()
+                .contentType(pdf ? MediaType.APPLICATION_PDF : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + client + (pdf ? ".pdf" : ".csv"))
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    // Large statements: queue a job, poll its status, then download the result
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitReportJob(@RequestParam String fecha, @RequestParam UUID client) {
+        LocalDateTime[] range = parseDateRange(fecha);
+        try {
+            ReportJob job = reportJobService.submit(client, range[0], range[1]);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/reportes/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many report jobs queued, try again later.");
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJob> getReportJob(@PathVariable UUID jobId) {
+        return reportJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getReportJobResult(@PathVariable UUID jobId) {
+        ReportJob job = reportJobService.getJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Resource result = reportJobService.getResult(jobId).orElse(null);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Report job is " + job.getStatus());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(job.getResultBytes())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"statement-" + jobId + ".json\"")
+                .body(result);
+    }
+
+    private static LocalDateTime[] parseDateRange(String fecha) {
+        try {
+            String[] dates = fecha.split(",");
+            return new LocalDateTime[] { LocalDateTime.parse(dates[0]), LocalDateTime.parse(dates[1]) };
+        } catch (DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid date format. Please use 'yyyy-MM-ddTHH:mm:ss'", e);
+        }
+    }
 }
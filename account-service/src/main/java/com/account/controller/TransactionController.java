@@ -1,11 +1,18 @@
 package com.account.controller;
 
+import com.account.dto.IngestResult;
 import com.account.entity.Transaction;
 import com.account.service.TransactionService;
+import com.finances.common.dto.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,10 +30,35 @@ public class TransactionController {
         return ResponseEntity.ok(createdTransactions);
     }
 
+    // Historical import only: refused unless transaction.ingest.historical-import is enabled
+    @PostMapping("/bulk")
+    public ResponseEntity<?> ingestTransactions(@RequestBody List<Transaction> transactions) {
+        if (!transactionService.isHistoricalImportEnabled()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Historical import is disabled.");
+        }
+        IngestResult result = transactionService.ingestTransactions(transactions);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        List<Transaction> transactions = transactionService.getAllTransactions();
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<KeysetPage<Transaction>> getAllTransactions(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        KeysetPage<Transaction> page = transactionService.getTransactionsPage(
+                KeysetPage.decodeCursor(after), KeysetPage.clampLimit(limit));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) String fecha,
+            @RequestParam(required = false) UUID client,
+            @RequestParam(required = false) UUID account) {
+        LocalDateTime[] range = parseDateRange(fecha);
+        StreamingResponseBody body = out -> transactionService.exportTransactions(account, client, range[0], range[1], out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{transactionId}")
@@ -38,14 +70,11 @@ public class TransactionController {
 
     @PatchMapping("/{transactionId}")
     public ResponseEntity<Transaction> updateTransaction(@PathVariable UUID transactionId, @RequestBody Transaction updatedTransaction) {
-        try {
-            Transaction transaction = transactionService.updateTransaction(transactionId, updatedTransaction);
-            return ResponseEntity.ok(transaction);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        Transaction transaction = transactionService.updateTransaction(transactionId, updatedTransaction);
+        return ResponseEntity.ok(transaction);
     }
 
+    // Posts a reversal of the movement; the original row stays in the ledger
     @DeleteMapping("/{transactionId}")
     public ResponseEntity<Void> deleteTransaction(@PathVariable UUID transactionId) {
         transactionService.deleteTransaction(transactionId);
@@ -57,4 +86,16 @@ public class TransactionController {
         transactionService.deleteAllTransactions();
         return ResponseEntity.noContent().build();
     }
+
+    private static LocalDateTime[] parseDateRange(String fecha) {
+        if (fecha == null) {
+            return new LocalDateTime[2];
+        }
+        try {
+            String[] dates = fecha.split(",");
+            return new LocalDateTime[] { LocalDateTime.parse(dates[0]), LocalDateTime.parse(dates[1]) };
+        } catch (DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid date format. Please use 'yyyy-MM-ddTHH:mm:ss'", e);
+        }
+    }
 }
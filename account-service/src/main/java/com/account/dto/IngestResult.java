@@ -0,0 +1,16 @@
+package com.account.dto;
+
+import lombok.Data;
+
+@Data
+public class IngestResult {
+    private final int rows;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public static IngestResult of(int rows, long elapsedNanos) {
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        double rowsPerSecond = elapsedNanos == 0 ? rows : rows * 1_000_000_000d / elapsedNanos;
+        return new IngestResult(rows, elapsedMillis, rowsPerSecond);
+    }
+}
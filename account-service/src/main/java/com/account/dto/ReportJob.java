@@ -0,0 +1,39 @@
+package com.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * State of an asynchronous statement job. Fields are written by the worker thread
+ * and read by request threads, hence volatile.
+ */
+@Data
+public class ReportJob {
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private final UUID jobId;
+    private final UUID clientId;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.PENDING;
+    private volatile LocalDateTime completedAt;
+    private volatile String error;
+    private volatile long resultBytes;
+
+    // The serialized statement lives in exactly one of these once the job is DONE
+    @JsonIgnore
+    private volatile byte[] resultInMemory;
+    @JsonIgnore
+    private volatile Path resultFile;
+
+    public boolean isSpilled() {
+        return resultFile != null;
+    }
+}
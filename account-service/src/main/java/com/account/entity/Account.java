@@ -4,9 +4,13 @@ import java.util.UUID;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Data
 @Entity
+// Updates write only the changed columns, so editing an account never writes back a balance
+// read before a concurrent posting
+@DynamicUpdate
 @Table(name = "accounts")
 public class Account {
 
@@ -19,6 +23,7 @@ public class Account {
     
     private String accountType;
     
+    // Opening balance on creation; after that only the posting engine changes it
     private Double balance;
     
     private boolean status;
@@ -0,0 +1,48 @@
+package com.account.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * An AMQP message id that has been handled. The primary key is what finally rejects a
+ * duplicate delivery; processed_at drives the TTL cleanup.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "processed_message", indexes = @Index(name = "idx_processed_message_at", columnList = "processed_at"))
+public class ProcessedMessage implements Persistable<String> {
+
+    @Id
+    @Column(name = "message_id", length = 191)
+    private String messageId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    public ProcessedMessage(String messageId, LocalDateTime processedAt) {
+        this.messageId = messageId;
+        this.processedAt = processedAt;
+    }
+
+    @Override
+    public String getId() {
+        return messageId;
+    }
+
+    // Always inserted, never merged: a plain INSERT fails on the key if the id was already recorded
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,9 +1,12 @@
 package com.account.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.Data;
 import jakarta.persistence.Column;
 import java.time.LocalDateTime;
@@ -11,6 +14,11 @@ import java.util.UUID;
 
 @Data
 @Entity
+// Date-window lookups per account and per client; on a partitioned table each partition holds its own slice
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_date", columnList = "account_id, transaction_date"),
+        @Index(name = "idx_transaction_client_date", columnList = "client_id, transaction_date")
+})
 public class Transaction {
 
     @Id
@@ -32,6 +40,14 @@ public class Transaction {
     @Column(nullable = false)
     private LocalDateTime transactionDate;
 
+    // Account balance right after this movement was posted ("saldo disponible"); null for imported rows until their account is rebuilt
+    private Double availableBalance;
+
+    // The movement this one reverses; unique, so a movement can only be reversed once. Set by the service, never by clients
+    @Column(unique = true)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private UUID reversalOf;
+
     public void setCredit(boolean credit) {
         this.credit = credit;
     }
@@ -2,28 +2,103 @@ package com.account.listener;
 
 import com.account.entity.Account;
 import com.account.service.AccountService;
+import com.account.service.MessageDeduplicator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.finances.common.dto.KeysetPage;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.UUID;
 
+import static com.account.config.AccountServiceConfig.*;
+
 @Component
 public class AccountMessageListener {
 
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private MessageDeduplicator messageDeduplicator;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Upper bound on the chunks one request may ask for, whatever credit the caller grants
+    @Value("${account.stream.max-credit:16}")
+    private int maxCredit = 16;
+
+    /**
+     * Answers GetAllAccounts with a stream of chunks sent to the request's reply queue,
+     * instead of one message holding every account. Each chunk is a JSON array of up to
+     * {@code x-chunk-size} accounts, correlated with the request and numbered from
+     * {@code x-chunk-seq}. At most {@code x-chunk-credit} chunks are sent per request;
+     * the caller asks for more with the cursor of the last chunk it received, so it
+     * controls how far ahead the stream runs. The final chunk has {@code x-chunk-last}.
+     */
     @RabbitListener(queues = "account.request.queue")
-    public List<Account> handleGetAllAccountsRequest(String message) {
-        if (message.equals("GetAllAccounts")) {
-            return accountService.getAllAccounts();
+    public void handleGetAllAccountsRequest(@Payload String message, Message request) {
+        if (!GET_ALL_ACCOUNTS_REQUEST.equals(message)) {
+            return;
+        }
+        MessageProperties properties = request.getMessageProperties();
+        String replyTo = properties.getReplyTo();
+        if (replyTo == null) {
+            throw new AmqpRejectAndDontRequeueException("GetAllAccounts request without a reply queue");
+        }
+        Number requestedSize = properties.getHeader(CHUNK_SIZE_HEADER);
+        int chunkSize = KeysetPage.clampLimit(requestedSize != null ? requestedSize.intValue() : null);
+        Number requestedCredit = properties.getHeader(CHUNK_CREDIT_HEADER);
+        int credit = Math.min(requestedCredit != null ? Math.max(1, requestedCredit.intValue()) : 1, maxCredit);
+        Number firstSeq = properties.getHeader(CHUNK_SEQ_HEADER);
+        long seq = firstSeq != null ? firstSeq.longValue() : 0;
+        UUID after;
+        try {
+            after = KeysetPage.decodeCursor(properties.getHeader(CHUNK_CURSOR_HEADER));
+        } catch (IllegalArgumentException e) {
+            throw new AmqpRejectAndDontRequeueException(e.getMessage(), e);
+        }
+
+        for (int sent = 0; sent < credit; sent++, seq++) {
+            KeysetPage<Account> page = accountService.getAccountsPage(after, chunkSize);
+            boolean last = page.getNextCursor() == null;
+            sendChunk(replyTo, properties.getCorrelationId(), seq, page, last);
+            if (last) {
+                return;
+            }
+            after = KeysetPage.decodeCursor(page.getNextCursor());
+        }
+    }
+
+    private void sendChunk(String replyTo, String correlationId, long seq, KeysetPage<Account> page, boolean last) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setCorrelationId(correlationId);
+        properties.setHeader(CHUNK_SEQ_HEADER, seq);
+        properties.setHeader(CHUNK_LAST_HEADER, last);
+        if (page.getNextCursor() != null) {
+            properties.setHeader(CHUNK_CURSOR_HEADER, page.getNextCursor());
+        }
+        try {
+            rabbitTemplate.send("", replyTo, new Message(objectMapper.writeValueAsBytes(page.getItems()), properties));
+        } catch (JsonProcessingException e) {
+            throw new AmqpRejectAndDontRequeueException("Failed to serialize account chunk", e);
         }
-        return List.of();
     }
 
     public String handleGetAccountByIdRequest(String message) {
@@ -32,7 +107,6 @@ public class AccountMessageListener {
             Account account = accountService.getAccountById(accountId).orElse(null);
     
             if (account != null) {
-                ObjectMapper objectMapper = new ObjectMapper();
                 try {
                     return objectMapper.writeValueAsString(account);
                 } catch (JsonProcessingException e) {
@@ -43,20 +117,25 @@ public class AccountMessageListener {
         return null;
     }
 
+    // Commands are applied once per message id, so a redelivery doesn't create or change an account twice
     @RabbitListener(queues = "account.creation.queue")
-    public void handleAccountCreation(Account account) {
-        accountService.createAccounts(List.of(account));
+    public void handleAccountCreation(@Payload Account account,
+                                      @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
+        messageDeduplicator.runOnce(requireMessageId(messageId), () -> accountService.createAccounts(List.of(account)));
     }
 
     @RabbitListener(queues = "account.update.queue")
-    public void handleAccountUpdate(Account account) {
-        accountService.updateAccount(account.getAccountId(), account);
+    public void handleAccountUpdate(@Payload Account account,
+                                    @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
+        messageDeduplicator.runOnce(requireMessageId(messageId),
+                () -> accountService.updateAccount(account.getAccountId(), account));
     }
 
     @RabbitListener(queues = "account.deletion.queue")
-    public void handleAccountDeletion(String accountId) {
+    public void handleAccountDeletion(@Payload String accountId,
+                                      @Header(name = AmqpHeaders.MESSAGE_ID, required = false) String messageId) {
         UUID uuid = UUID.fromString(accountId);
-        accountService.deleteAccount(uuid);
+        messageDeduplicator.runOnce(requireMessageId(messageId), () -> accountService.deleteAccount(uuid));
     }
     
     @RabbitListener(queues = "account.response.queue")
@@ -66,4 +145,11 @@ public class AccountMessageListener {
             System.out.println("Generated account number: " + accountNumber);
         }
     }
+
+    private static String requireMessageId(String messageId) {
+        if (messageId == null || messageId.isBlank()) {
+            throw new AmqpRejectAndDontRequeueException("Account command without a message id");
+        }
+        return messageId;
+    }
 }
@@ -0,0 +1,73 @@
+package com.account.listener;
+
+import com.account.service.ClientServiceCommunicator;
+import com.account.service.ReportCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Keeps the client near-cache, and the cached statements that embed the client, fresh
+ * from the events client-service publishes on {@code client.exchange}. Every instance
+ * binds its own anonymous queue, so each instance's caches see every event.
+ */
+@Component
+public class ClientEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientEventListener.class);
+
+    @Autowired
+    private ClientServiceCommunicator clientServiceCommunicator;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue,
+            exchange = @Exchange(value = "client.exchange", type = ExchangeTypes.DIRECT),
+            key = {"client.update", "client.partialUpdate", "client.deletion", "client.bulkDeletion"}))
+    public void handleClientEvent(Message message) {
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        if ("client.bulkDeletion".equals(routingKey)) {
+            clientServiceCommunicator.evictAllClients();
+            reportCache.invalidateAll();
+            return;
+        }
+        UUID clientId = clientIdOf(message.getBody());
+        if (clientId == null) {
+            // Can't tell which entry is stale, so drop them all rather than serve old data
+            logger.warn("Client event {} without a clientId, clearing the client cache", routingKey);
+            clientServiceCommunicator.evictAllClients();
+            reportCache.invalidateAll();
+            return;
+        }
+        clientServiceCommunicator.evictClient(clientId);
+        reportCache.invalidateClient(clientId);
+    }
+
+    // Updates carry the client as a JSON object, deletions carry only its id as a JSON string
+    private UUID clientIdOf(byte[] body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            JsonNode id = node.isObject() ? node.get("clientId") : node;
+            return id != null && id.isTextual() ? UUID.fromString(id.asText()) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
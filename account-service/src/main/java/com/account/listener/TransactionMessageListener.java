@@ -1,15 +1,174 @@
 package com.account.listener;
 
 import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.service.MessageDeduplicator;
+import com.account.service.PostingEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finances.common.config.BinaryMessageConverter;
+import com.rabbitmq.client.Channel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Posts the transactions published on transaction.queue.
+ *
+ * Deliveries arrive in batches (see {@code transactionListenerContainerFactory}). Every
+ * transaction of a batch is queued on the posting engine at once, so the engine commits
+ * the batch as one group per lane, and each delivery is acknowledged only after its
+ * posting has committed. Deliveries that can never succeed (unreadable payloads, unknown
+ * accounts) are rejected without requeue; anything else is requeued for another attempt,
+ * up to {@code transaction.consumer.max-deliveries} deliveries. Rejected messages go to
+ * the queue's dead-letter queue, transaction.dlq.
+ *
+ * A delivery must carry a message id. Ids already recorded by a previous posting, or
+ * repeated within the batch, are acknowledged without being posted again; the engine
+ * records the ids of new postings in the same commit as the balances.
+ *
+ * Bodies are JSON, or the binary format of {@link BinaryMessageConverter} when the
+ * content type says so.
+ */
 @Component
 public class TransactionMessageListener {
 
-    @RabbitListener(queues = "transaction.queue")
-    public void handleTransactionCreation(Transaction transaction) {
-        System.out.println("Received transaction: " + transaction);
-        
+    private static final Logger logger = LoggerFactory.getLogger(TransactionMessageListener.class);
+
+    @Autowired
+    private PostingEngine postingEngine;
+
+    @Autowired
+    private MessageDeduplicator messageDeduplicator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BinaryMessageConverter messageConverter;
+
+    @Value("${transaction.consumer.max-deliveries:5}")
+    private int maxDeliveries;
+
+    @RabbitListener(queues = "transaction.queue", containerFactory = "transactionListenerContainerFactory")
+    public void handleTransactionCreation(List<Message> messages, Channel channel) throws IOException {
+        Set<String> duplicates = messageDeduplicator.findDuplicates(messages.stream()
+                .map(TransactionMessageListener::messageId)
+                .filter(Objects::nonNull)
+                .toList());
+        Set<String> seen = new HashSet<>();
+        List<CompletableFuture<Transaction>> postings = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            String messageId = messageId(message);
+            if (messageId != null && (duplicates.contains(messageId) || !seen.add(messageId))) {
+                logger.info("Dropping duplicate transaction message {}", messageId);
+                postings.add(null);
+            } else {
+                postings.add(post(message, messageId));
+            }
+        }
+
+        boolean allPosted = true;
+        List<Outcome> outcomes = new ArrayList<>(messages.size());
+        for (CompletableFuture<Transaction> posting : postings) {
+            Outcome outcome = posting != null ? outcomeOf(posting) : Outcome.DUPLICATE;
+            allPosted &= outcome == Outcome.POSTED || outcome == Outcome.DUPLICATE;
+            outcomes.add(outcome);
+        }
+
+        if (allPosted) {
+            // One ack covers the whole batch: deliveries on a channel are acknowledged in order
+            channel.basicAck(deliveryTag(messages.get(messages.size() - 1)), true);
+            return;
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            long deliveryTag = deliveryTag(messages.get(i));
+            switch (outcomes.get(i)) {
+                case POSTED, DUPLICATE -> channel.basicAck(deliveryTag, false);
+                case REJECTED -> channel.basicReject(deliveryTag, false);
+                case RETRY -> {
+                    if (deliveryCount(messages.get(i)) + 1 < maxDeliveries) {
+                        channel.basicNack(deliveryTag, false, true);
+                    } else {
+                        logger.error("Transaction message {} failed {} deliveries, dead-lettering it",
+                                messageId(messages.get(i)), maxDeliveries);
+                        channel.basicReject(deliveryTag, false);
+                    }
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Transaction> post(Message message, String messageId) {
+        if (messageId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Transaction message without a message id"));
+        }
+        Transaction transaction;
+        try {
+            transaction = readTransaction(message);
+        } catch (IOException | MessageConversionException e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unreadable transaction message", e));
+        }
+        try {
+            return postingEngine.post(transaction, messageId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Transaction readTransaction(Message message) throws IOException {
+        if (!BinaryMessageConverter.CONTENT_TYPE_BINARY.equals(message.getMessageProperties().getContentType())) {
+            return objectMapper.readValue(message.getBody(), Transaction.class);
+        }
+        if (messageConverter.fromMessage(message) instanceof Transaction transaction) {
+            return transaction;
+        }
+        throw new MessageConversionException("Binary message is not a transaction");
+    }
+
+    private static Outcome outcomeOf(CompletableFuture<Transaction> posting) {
+        try {
+            posting.join();
+            return Outcome.POSTED;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException || cause instanceof ResourceNotFoundException) {
+                logger.warn("Rejecting transaction message: {}", cause.getMessage());
+                return Outcome.REJECTED;
+            }
+            logger.error("Transaction message not posted, requeueing", cause);
+            return Outcome.RETRY;
+        }
+    }
+
+    private static String messageId(Message message) {
+        return message.getMessageProperties().getMessageId();
+    }
+
+    // Earlier deliveries of this message, as counted by the quorum queue
+    private static long deliveryCount(Message message) {
+        Object count = message.getMessageProperties().getHeader("x-delivery-count");
+        return count instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static long deliveryTag(Message message) {
+        return message.getMessageProperties().getDeliveryTag();
+    }
+
+    private enum Outcome {
+        POSTED, DUPLICATE, REJECTED, RETRY
     }
 }
@@ -1,6 +1,7 @@
 package com.account.repository;
 
 import com.account.entity.Account;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +12,10 @@ import java.util.List;
 public interface AccountRepository extends JpaRepository<Account, UUID> {
     
     List<Account> findByClientId(UUID clientId);
+
+    // Keyset pagination: first page, then every following page starts after the last id seen
+    List<Account> findAllByOrderByAccountIdAsc(Limit limit);
+
+    List<Account> findByAccountIdGreaterThanOrderByAccountIdAsc(UUID accountId, Limit limit);
 }
 
@@ -1,14 +1,20 @@
 package com.account.repository;
 
 import com.account.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
@@ -20,4 +26,49 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
             @Param("endDate") LocalDateTime endDate);
 
     List<Transaction> findByAccountIdAndTransactionDateBetween(UUID accountId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // One round-trip for all of a client's accounts in a statement window
+    List<Transaction> findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+            Collection<UUID> accountIds, LocalDateTime startDate, LocalDateTime endDate);
+
+    // An account's whole history in posting order, for rebuilding its balances after an import
+    List<Transaction> findByAccountIdOrderByTransactionDateAscTransactionIdAsc(UUID accountId);
+
+    boolean existsByReversalOf(UUID transactionId);
+
+    // Forward-only cursor for exports: Integer.MIN_VALUE makes MySQL Connector/J stream rows
+    // one at a time instead of buffering the whole result set in the driver
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t WHERE (:accountId IS NULL OR t.accountId = :accountId)"
+            + " AND (:clientId IS NULL OR t.clientId = :clientId)"
+            + " AND (:startDate IS NULL OR t.transactionDate >= :startDate)"
+            + " AND (:endDate IS NULL OR t.transactionDate <= :endDate)")
+    Stream<Transaction> streamForExport(
+            @Param("accountId") UUID accountId,
+            @Param("clientId") UUID clientId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    // Statement rows grouped by account, on the same streaming cursor as the export above
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.accountId IN :accountIds"
+            + " AND t.transactionDate BETWEEN :startDate AND :endDate"
+            + " ORDER BY t.accountId, t.transactionDate")
+    Stream<Transaction> streamStatement(
+            @Param("accountIds") Collection<UUID> accountIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    // Keyset pagination: first page, then every following page starts after the last id seen
+    List<Transaction> findAllByOrderByTransactionIdAsc(Limit limit);
+
+    List<Transaction> findByTransactionIdGreaterThanOrderByTransactionIdAsc(UUID transactionId, Limit limit);
 }
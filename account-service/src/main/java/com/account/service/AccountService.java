@@ -3,19 +3,32 @@ package com.account.service;
 import com.account.entity.Account;
 import com.account.repository.AccountRepository;
 import com.account.exception.ResourceNotFoundException;
+import com.finances.common.dto.KeysetPage;
+import com.finances.common.service.FieldPatcher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class AccountService {
 
+    // Fields a PATCH may change; ids, owner, status and the balance (only movements change it) are not among them
+    private static final FieldPatcher<Account> ACCOUNT_PATCHER = FieldPatcher.of(Account.class,
+            "accountNumber", "accountType");
+
     @Autowired
     private AccountRepository accountRepository;
 
+    // Statements embed the client's accounts, so any account write drops them
+    @Autowired
+    private ReportCache reportCache;
 
     public List<Account> getAccountsByClientId(UUID clientId) {
         return accountRepository.findByClientId(clientId);
@@ -25,49 +38,60 @@ public class AccountService {
         return accountRepository.findAll();
     }
 
+    public KeysetPage<Account> getAccountsPage(UUID after, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<Account> rows = after == null
+                ? accountRepository.findAllByOrderByAccountIdAsc(fetch)
+                : accountRepository.findByAccountIdGreaterThanOrderByAccountIdAsc(after, fetch);
+        return KeysetPage.of(rows, limit, Account::getAccountId);
+    }
+
     public Optional<Account> getAccountById(UUID accountId) {
         return accountRepository.findById(accountId);
     }
 
     public List<Account> createAccounts(List<Account> accounts) {
-        return accountRepository.saveAll(accounts);
-    }     
+        List<Account> saved = accountRepository.saveAll(accounts);
+        reportCache.invalidateClients(saved.stream().map(Account::getClientId).filter(Objects::nonNull).toList());
+        return saved;
+    }
 
     public Account updateAccount(UUID accountId, Account accountDetails) {
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
 
+        // The balance in the body is ignored: it's owned by the posting engine's lanes
         account.setAccountType(accountDetails.getAccountType());
-        account.setBalance(accountDetails.getBalance());
 
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        reportCache.invalidateClient(account.getClientId());
+        return saved;
     }
 
-    public Account partialUpdateAccount(UUID accountId, Account accountDetails) {
+    public Account partialUpdateAccount(UUID accountId, Map<String, Object> updates) {
         return accountRepository.findById(accountId)
                 .map(account -> {
-                    if (accountDetails.getAccountNumber() != null) {
-                        account.setAccountNumber(accountDetails.getAccountNumber());
-                    }
-                    if (accountDetails.getAccountType() != null) {
-                        account.setAccountType(accountDetails.getAccountType());
-                    }
-                    if (accountDetails.getBalance() != null) {
-                        account.setBalance(accountDetails.getBalance());
-                    }
-                    return accountRepository.save(account);
+                    // As before, a null value leaves the field unchanged
+                    Map<String, Object> present = new HashMap<>(updates);
+                    present.values().removeIf(Objects::isNull);
+                    ACCOUNT_PATCHER.apply(account, present);
+                    Account saved = accountRepository.save(account);
+                    reportCache.invalidateClient(account.getClientId());
+                    return saved;
                 })
                 .orElse(null);
     }
 
     public void deleteAllAccounts() {
         accountRepository.deleteAll();
-    }    
+        reportCache.invalidateAll();
+    }
 
     public void deleteAccount(UUID accountId) {
-        if (!accountRepository.existsById(accountId)) {
-            throw new ResourceNotFoundException("Account not found with id: " + accountId);
-        }
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
         accountRepository.deleteById(accountId);
+        reportCache.invalidateClient(account.getClientId());
     }
 }
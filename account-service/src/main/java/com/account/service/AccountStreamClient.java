@@ -0,0 +1,156 @@
+package com.account.service;
+
+import com.account.entity.Account;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.account.config.AccountServiceConfig.*;
+
+/**
+ * Reads every account through the chunked GetAllAccounts protocol of account.request.queue.
+ *
+ * Chunks are requested lazily: nothing is sent until the stream is consumed, and a new
+ * request for {@code account.stream.credit} chunks goes out only once the previous ones
+ * have all been read. At most that many chunks wait in the private reply queue, and only
+ * the chunk being iterated is held in memory. Chunks must arrive in sequence; a gap or a
+ * missing chunk fails the stream. Close the stream to delete its reply queue.
+ */
+@Service
+public class AccountStreamClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountStreamClient.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${account.stream.chunk-size:200}")
+    private int chunkSize = 200;
+
+    @Value("${account.stream.credit:4}")
+    private int credit = 4;
+
+    @Value("${account.stream.receive-timeout:10s}")
+    private Duration receiveTimeout = Duration.ofSeconds(10);
+
+    public Stream<Account> streamAllAccounts() {
+        String replyQueue = rabbitTemplate.execute(channel -> channel.queueDeclare().getQueue());
+        ChunkIterator chunks = new ChunkIterator(replyQueue);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(chunks::close);
+    }
+
+    private final class ChunkIterator implements Iterator<Account> {
+
+        private final String replyQueue;
+        private final String correlationId = UUID.randomUUID().toString();
+        private Iterator<Account> current = Collections.emptyIterator();
+        private long nextSeq;
+        // Sequence number after the last chunk granted so far
+        private long grantedUpTo;
+        private String cursor;
+        private boolean last;
+
+        private ChunkIterator(String replyQueue) {
+            this.replyQueue = replyQueue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !last) {
+                current = nextChunk().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Account next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private Iterable<Account> nextChunk() {
+            if (nextSeq == grantedUpTo) {
+                requestChunks();
+            }
+            Message chunk = receive();
+            MessageProperties properties = chunk.getMessageProperties();
+            Number seq = properties.getHeader(CHUNK_SEQ_HEADER);
+            if (seq == null || seq.longValue() != nextSeq) {
+                throw new AmqpException("Account chunk " + seq + " received, expected " + nextSeq);
+            }
+            nextSeq++;
+            cursor = properties.getHeader(CHUNK_CURSOR_HEADER);
+            last = Boolean.TRUE.equals(properties.getHeader(CHUNK_LAST_HEADER));
+            try {
+                return Arrays.asList(objectMapper.readValue(chunk.getBody(), Account[].class));
+            } catch (IOException e) {
+                throw new AmqpException("Unreadable account chunk " + seq, e);
+            }
+        }
+
+        private void requestChunks() {
+            rabbitTemplate.convertAndSend(ACCOUNT_EXCHANGE, ACCOUNT_REQUEST_ROUTING_KEY, GET_ALL_ACCOUNTS_REQUEST, request -> {
+                MessageProperties properties = request.getMessageProperties();
+                properties.setReplyTo(replyQueue);
+                properties.setCorrelationId(correlationId);
+                properties.setHeader(CHUNK_SIZE_HEADER, chunkSize);
+                properties.setHeader(CHUNK_CREDIT_HEADER, credit);
+                properties.setHeader(CHUNK_SEQ_HEADER, nextSeq);
+                if (cursor != null) {
+                    properties.setHeader(CHUNK_CURSOR_HEADER, cursor);
+                }
+                return request;
+            });
+            grantedUpTo = nextSeq + credit;
+        }
+
+        private Message receive() {
+            long deadline = System.nanoTime() + receiveTimeout.toNanos();
+            while (true) {
+                long remaining = Math.max(1, Duration.ofNanos(deadline - System.nanoTime()).toMillis());
+                Message message = rabbitTemplate.receive(replyQueue, remaining);
+                if (message == null) {
+                    throw new AmqpException("Account chunk " + nextSeq + " not received within " + receiveTimeout);
+                }
+                if (correlationId.equals(message.getMessageProperties().getCorrelationId())) {
+                    return message;
+                }
+                logger.warn("Dropping uncorrelated message on reply queue {}", replyQueue);
+            }
+        }
+
+        private void close() {
+            try {
+                rabbitTemplate.execute(channel -> channel.queueDelete(replyQueue));
+            } catch (AmqpException e) {
+                // The queue is exclusive and auto-delete, so the broker removes it with the connection anyway
+                logger.warn("Could not delete reply queue {}: {}", replyQueue, e.getMessage());
+            }
+        }
+    }
+}
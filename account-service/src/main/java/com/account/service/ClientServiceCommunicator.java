@@ -1,30 +1,263 @@
 package com.account.service;
 
 import com.account.dto.ClientDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Looks up client details in client-service through a bounded near-cache.
+ *
+ * Entries are evicted by size (least recently used first) and expire after a TTL as a
+ * safety net; the normal path to freshness is {@link #evictClient(UUID)}, driven by the
+ * update and deletion events client-service publishes. Lookups that find no client are
+ * not cached. Several clients are fetched at once with {@code GET /clientes?ids=...}, so
+ * a multi-client lookup costs one round-trip per {@value #MAX_IDS_PER_REQUEST} misses.
+ *
+ * Misses are coalesced before they reach client-service. The cache holds the in-flight
+ * future, so concurrent lookups of one client share a single remote call, and misses for
+ * different clients that arrive within {@code client.lookup.batch-window} are sent as one
+ * batch request.
+ */
 @Service
 public class ClientServiceCommunicator {
 
+    private static final Logger logger = LoggerFactory.getLogger(ClientServiceCommunicator.class);
+
+    // Keeps the query string well under common URL length limits
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    // Threads that time batch windows and run the remote calls
+    private static final int LOOKUP_THREADS = 4;
+
     private final RabbitTemplate rabbitTemplate;
 
+    private final AsyncCache<UUID, ClientDTO> clientCache;
+
+    private final ScheduledExecutorService lookupExecutor;
+
+    private final LookupBatcher batcher;
+
     @Autowired
     private RestTemplate restTemplate;
 
-    public ClientServiceCommunicator(RabbitTemplate rabbitTemplate) {
+    @Value("${client.service.url:http://localhost:8080/clientes}")
+    private String clientServiceUrl = "http://localhost:8080/clientes";
+
+    public ClientServiceCommunicator(RabbitTemplate rabbitTemplate,
+                                     @Value("${client.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${client.cache.ttl:10m}") Duration ttl,
+                                     @Value("${client.lookup.batch-window:5ms}") Duration batchWindow) {
         this.rabbitTemplate = rabbitTemplate;
+        this.clientCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.lookupExecutor = Executors.newScheduledThreadPool(LOOKUP_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "client-lookup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batcher = new LookupBatcher(batchWindow.toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
     }
 
     public ClientDTO getClientDetails(UUID clientId) {
+        CompletableFuture<ClientDTO> lookup = clientCache.get(clientId, (UUID id, Executor executor) -> batcher.enqueue(id));
+        try {
+            return join(lookup);
+        } catch (RuntimeException e) {
+            // Caffeine drops failed lookups asynchronously; make sure a retry calls out again
+            clientCache.asMap().remove(clientId, lookup);
+            throw e;
+        }
+    }
 
-    ResponseEntity<ClientDTO> response = restTemplate.getForEntity("http://localhost:8080/clients/" + clientId, ClientDTO.class);
-    return response.getBody();
-}
+    /**
+     * Looks up every client in {@code clientIds}, fetching all cache misses in batched
+     * requests. Clients that do not exist are absent from the result.
+     */
+    public Map<UUID, ClientDTO> getClientsDetails(Collection<UUID> clientIds) {
+        return join(clientCache.getAll(clientIds, (Set<? extends UUID> ids, Executor executor) -> {
+            Map<UUID, CompletableFuture<ClientDTO>> lookups = new HashMap<>();
+            ids.forEach(id -> lookups.put(id, batcher.enqueue(id)));
+            return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                    .thenApply(done -> {
+                        Map<UUID, ClientDTO> found = new HashMap<>();
+                        lookups.forEach((id, lookup) -> {
+                            if (lookup.join() != null) {
+                                found.put(id, lookup.join());
+                            }
+                        });
+                        return found;
+                    });
+        }));
+    }
+
+    // An in-flight lookup is dropped too: its waiters still get the result, but it is not cached
+    public void evictClient(UUID clientId) {
+        clientCache.synchronous().invalidate(clientId);
+    }
+
+    public void evictAllClients() {
+        clientCache.synchronous().invalidateAll();
+    }
 
+    /**
+     * Hit, miss and eviction counts of the client near-cache since startup.
+     */
+    public CacheStats clientCacheStats() {
+        return clientCache.synchronous().stats();
+    }
+
+    private static <T> T join(CompletableFuture<T> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private ClientDTO fetchClientDetails(UUID clientId) {
+        logger.debug("Client {} not cached, fetching from client-service", clientId);
+        try {
+            ResponseEntity<ClientDTO> response = restTemplate.getForEntity(clientServiceUrl + "/" + clientId, ClientDTO.class);
+            return response.getBody();
+        } catch (HttpClientErrorException.NotFound e) {
+            // Same answer as a batch lookup that does not return the client
+            return null;
+        }
+    }
+
+    private Map<UUID, ClientDTO> fetchClientsDetails(Set<? extends UUID> clientIds) {
+        logger.debug("{} clients not cached, fetching from client-service", clientIds.size());
+        List<UUID> pending = new ArrayList<>(clientIds);
+        Map<UUID, ClientDTO> clients = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += MAX_IDS_PER_REQUEST) {
+            String ids = pending.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, pending.size())).stream()
+                    .map(UUID::toString)
+                    .collect(Collectors.joining(","));
+            ClientDTO[] found = restTemplate.getForObject(clientServiceUrl + "?ids=" + ids, ClientDTO[].class);
+            if (found != null) {
+                Arrays.stream(found).forEach(client -> clients.put(client.getClientId(), client));
+            }
+        }
+        return clients;
+    }
+
+    /**
+     * Collects cache misses and sends them to client-service in batches. The first miss
+     * of a window schedules a flush after the window; a full batch is sent at once, and
+     * whatever is left after a flush waits for a window of its own.
+     */
+    private final class LookupBatcher {
+
+        private final long windowNanos;
+
+        // Guarded by this
+        private final Map<UUID, CompletableFuture<ClientDTO>> pending = new LinkedHashMap<>();
+        private boolean flushScheduled;
+
+        private LookupBatcher(long windowNanos) {
+            this.windowNanos = windowNanos;
+        }
+
+        private synchronized CompletableFuture<ClientDTO> enqueue(UUID clientId) {
+            CompletableFuture<ClientDTO> lookup = pending.get(clientId);
+            if (lookup != null) {
+                return lookup;
+            }
+            lookup = new CompletableFuture<>();
+            pending.put(clientId, lookup);
+            if (pending.size() == MAX_IDS_PER_REQUEST) {
+                lookupExecutor.execute(() -> flush(true));
+            } else if (!flushScheduled) {
+                scheduleFlush();
+            }
+            return lookup;
+        }
+
+        private void scheduleFlush() {
+            flushScheduled = true;
+            lookupExecutor.schedule(() -> flush(false), windowNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void flush(boolean fullBatchOnly) {
+            Map<UUID, CompletableFuture<ClientDTO>> batch = new LinkedHashMap<>();
+            synchronized (this) {
+                if (fullBatchOnly && pending.size() < MAX_IDS_PER_REQUEST) {
+                    return;
+                }
+                Iterator<Map.Entry<UUID, CompletableFuture<ClientDTO>>> entries = pending.entrySet().iterator();
+                while (entries.hasNext() && batch.size() < MAX_IDS_PER_REQUEST) {
+                    Map.Entry<UUID, CompletableFuture<ClientDTO>> entry = entries.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    entries.remove();
+                }
+                if (!fullBatchOnly) {
+                    flushScheduled = false;
+                }
+                if (pending.size() >= MAX_IDS_PER_REQUEST) {
+                    lookupExecutor.execute(() -> flush(true));
+                } else if (!pending.isEmpty() && !flushScheduled) {
+                    scheduleFlush();
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                Map<UUID, ClientDTO> found = batch.size() == 1
+                        ? singleLookup(batch.keySet().iterator().next())
+                        : fetchClientsDetails(batch.keySet());
+                batch.forEach((id, lookup) -> lookup.complete(found.get(id)));
+            } catch (RuntimeException e) {
+                logger.warn("Client lookup of {} ids failed", batch.size(), e);
+                batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+            }
+        }
+
+        private Map<UUID, ClientDTO> singleLookup(UUID clientId) {
+            Map<UUID, ClientDTO> found = new HashMap<>();
+            found.put(clientId, fetchClientDetails(clientId));
+            return found;
+        }
+    }
 }
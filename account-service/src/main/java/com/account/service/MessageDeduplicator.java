@@ -0,0 +1,310 @@
+package com.account.service;
+
+import com.account.entity.ProcessedMessage;
+import com.account.repository.ProcessedMessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Remembers which AMQP messages account-service has already handled, so redeliveries
+ * are dropped before they write anything.
+ *
+ * The processed_message table is the source of truth: an id is inserted in the same
+ * transaction as the work it guards, and its primary key rejects a second insert. In
+ * front of it sit Bloom filters of the recorded ids, one per time slice
+ * ({@code message.dedup.slice}) of when they were recorded. The filters never miss an
+ * id that is in the table, so a negative answer (the usual case for a fresh message)
+ * skips the lookup; only a positive answer is confirmed against the table.
+ *
+ * Each slice is sized for {@code message.dedup.expected-rate} ids per second, so the
+ * filters hold the rate times the TTL in total (about 2 bytes per id) and stay accurate
+ * however long the service runs. At startup the ids recorded within the TTL are streamed
+ * into the filters; older rows are left to the TTL cleanup, which deletes expired rows
+ * and then simply drops the slices they were in, since ids can't be removed from a Bloom
+ * filter.
+ *
+ * Ids recorded by another instance only reach these filters at startup, so a message
+ * handled elsewhere can get past them. Its insert then fails on the primary key, and
+ * {@link #recordedConcurrently} tells that failure apart from a real error, so the
+ * message is dropped as a duplicate instead of being retried until it is dead-lettered.
+ */
+@Service
+public class MessageDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageDeduplicator.class);
+
+    private final ProcessedMessageRepository processedMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long sliceMillis;
+    private final long idsPerSlice;
+    private final double sliceFalsePositiveRate;
+
+    // Filters by slice number (epoch millis / slice length)
+    private final ConcurrentSkipListMap<Long, BloomFilter> slices = new ConcurrentSkipListMap<>();
+    private Clock clock = Clock.systemDefaultZone();
+    private volatile boolean loaded;
+
+    public MessageDeduplicator(ProcessedMessageRepository processedMessageRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${message.dedup.expected-rate:250}") double expectedRate,
+                               @Value("${message.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${message.dedup.ttl:1d}") Duration ttl,
+                               @Value("${message.dedup.slice:1h}") Duration slice) {
+        this.processedMessageRepository = processedMessageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.sliceMillis = slice.toMillis();
+        this.idsPerSlice = (long) Math.ceil(expectedRate * slice.toMillis() / 1000.0);
+        // A lookup asks every live slice, so their false positives add up
+        long liveSlices = ttl.toMillis() / sliceMillis + 2;
+        this.sliceFalsePositiveRate = falsePositiveRate / liveSlices;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(ttl);
+            Long count = transactionTemplate.execute(status -> {
+                long loadedIds = 0;
+                try (Stream<Object[]> recorded = processedMessageRepository.streamRecordedSince(cutoff)) {
+                    for (Object[] row : (Iterable<Object[]>) recorded::iterator) {
+                        LocalDateTime processedAt = (LocalDateTime) row[1];
+                        slice(epochMillis(processedAt)).put(BloomFilter.hash((String) row[0]));
+                        loadedIds++;
+                    }
+                }
+                return loadedIds;
+            });
+            loaded = true;
+            logger.info("Loaded {} processed message ids into {} dedup filter slices", count, slices.size());
+        } catch (RuntimeException e) {
+            // Without complete filters every check falls back to the table
+            loaded = false;
+            logger.warn("Could not load processed message ids, checking every message against the table", e);
+        }
+    }
+
+    public boolean isDuplicate(String messageId) {
+        if (loaded && !mightContain(messageId)) {
+            return false;
+        }
+        return processedMessageRepository.existsById(messageId);
+    }
+
+    /**
+     * Returns the ids in {@code messageIds} that were already handled, with at most one
+     * query for the ones the filters can't rule out.
+     */
+    public Set<String> findDuplicates(Collection<String> messageIds) {
+        List<String> candidates = loaded
+                ? messageIds.stream().filter(this::mightContain).toList()
+                : List.copyOf(messageIds);
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(processedMessageRepository.findRecordedIds(candidates));
+    }
+
+    /**
+     * Runs {@code work} in a transaction that also records {@code messageId}, unless the
+     * message was handled before. Returns false for a duplicate, including one that
+     * races another consumer and loses on the primary key.
+     */
+    public boolean runOnce(String messageId, Runnable work) {
+        if (isDuplicate(messageId)) {
+            logger.info("Dropping duplicate message {}", messageId);
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                record(List.of(messageId));
+                work.run();
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (!recordedConcurrently(messageId, e)) {
+                throw e;
+            }
+            logger.info("Dropping duplicate message {} handled concurrently", messageId);
+            return false;
+        }
+    }
+
+    /**
+     * Whether {@code failure} is the processed_message key rejecting {@code messageId}
+     * because another consumer recorded it first. If so, the id is added to the filters,
+     * so later deliveries of it are checked against the table.
+     */
+    public boolean recordedConcurrently(String messageId, RuntimeException failure) {
+        if (messageId == null || !(failure instanceof DataIntegrityViolationException)
+                || !processedMessageRepository.existsById(messageId)) {
+            return false;
+        }
+        remember(List.of(messageId));
+        return true;
+    }
+
+    /**
+     * Records ids as handled within the caller's transaction. They reach the filter only
+     * once that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        processedMessageRepository.saveAllAndFlush(messageIds.stream()
+                .map(id -> new ProcessedMessage(id, now))
+                .toList());
+        Set<String> recorded = Set.copyOf(messageIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(recorded);
+                }
+            });
+        } else {
+            remember(recorded);
+        }
+    }
+
+    @Scheduled(cron = "${message.dedup.cleanup-cron:0 15 * * * *}")
+    public synchronized void cleanUp() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(ttl);
+        Integer deleted = transactionTemplate.execute(status ->
+                processedMessageRepository.deleteProcessedBefore(cutoff));
+        logger.info("Removed {} processed message ids older than {}", deleted, ttl);
+        if (!loaded) {
+            load();
+        }
+        // Slices that ended before the cutoff only hold ids whose rows were just deleted
+        slices.headMap(sliceOf(epochMillis(cutoff))).clear();
+    }
+
+    private boolean mightContain(String messageId) {
+        long hash = BloomFilter.hash(messageId);
+        for (BloomFilter filter : slices.descendingMap().values()) {
+            if (filter.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void remember(Collection<String> messageIds) {
+        BloomFilter current = slice(clock.millis());
+        for (String messageId : messageIds) {
+            current.put(BloomFilter.hash(messageId));
+        }
+    }
+
+    // processed_at is a local date-time in the service's zone
+    private long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private long sliceOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, sliceMillis);
+    }
+
+    private BloomFilter slice(long epochMillis) {
+        long slice = sliceOf(epochMillis);
+        BloomFilter filter = slices.get(slice);
+        if (filter == null) {
+            BloomFilter created = new BloomFilter(idsPerSlice, sliceFalsePositiveRate);
+            filter = slices.putIfAbsent(slice, created);
+            if (filter == null) {
+                filter = created;
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Fixed-size Bloom filter over a lock-free bit array, fed precomputed hashes so a
+     * lookup hashes the id once for every slice. Sized for {@code expected} entries at
+     * the given false positive rate; it keeps working past that, with more false
+     * positives (each one costs a table lookup, never a wrong answer).
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashes;
+
+        BloomFilter(long expected, double falsePositiveRate) {
+            long n = Math.max(1, expected);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * 64));
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the UTF-8 bytes, finished with a murmur3 mix; the halves seed double hashing
+        static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.account.service;
+
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts transactions and applies them to account balances without lock contention.
+ *
+ * Accounts are sharded by accountId across a fixed set of lanes. Each lane owns a
+ * bounded ring buffer and a single thread, so a given balance is only ever written by
+ * one thread and postings to the same account apply in arrival order. A lane drains
+ * whatever has queued up (up to {@code posting.max-batch}) and commits it as one group:
+ * one account read, one batch of inserts and one batch of balance updates. Every
+ * transaction is stamped with the balance it leaves behind, so statements can read a
+ * date window without replaying the account's earlier history.
+ *
+ * The lane also assigns the transactionDate, strictly increasing per lane, so date order
+ * is posting order for every account and the stamped balances chain in that order.
+ * Callers can't supply the date: a backdated movement would sort before postings whose
+ * balance already includes it.
+ *
+ * Rows written around the engine (the historical import) are folded in by
+ * {@link #rebuildBalances(UUID)}, which runs on the account's lane between postings.
+ *
+ * The single-writer guarantee holds per process, so account-service must run as a
+ * single instance (or accounts must be partitioned between instances upstream).
+ */
+@Service
+public class PostingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostingEngine.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportCache reportCache;
+    private final MessageDeduplicator messageDeduplicator;
+    private final int laneCapacity;
+    private final int maxBatch;
+    private final Lane[] lanes;
+
+    public PostingEngine(AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         PlatformTransactionManager transactionManager,
+                         ReportCache reportCache,
+                         MessageDeduplicator messageDeduplicator,
+                         @Value("${posting.lanes:0}") int laneCount,
+                         @Value("${posting.lane-capacity:4096}") int laneCapacity,
+                         @Value("${posting.max-batch:256}") int maxBatch) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reportCache = reportCache;
+        this.messageDeduplicator = messageDeduplicator;
+        this.laneCapacity = laneCapacity;
+        this.maxBatch = maxBatch;
+        this.lanes = new Lane[laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors()];
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+        logger.info("Posting engine started with {} lanes", lanes.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Lane lane : lanes) {
+            lane.running = false;
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues a transaction on its account's lane. Blocks while that lane's buffer is
+     * full, which pushes back on callers instead of growing the heap.
+     */
+    public CompletableFuture<Transaction> post(Transaction transaction) {
+        return post(transaction, null);
+    }
+
+    /**
+     * Like {@link #post(Transaction)}, and records {@code messageId} as processed in the
+     * same commit as the posting, so a redelivery of the message is recognized.
+     */
+    public CompletableFuture<Transaction> post(Transaction transaction, String messageId) {
+        if (transaction.getAccountId() == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Transaction has no accountId"));
+        }
+        if (transaction.getTransactionDate() != null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("transactionDate is assigned when the transaction is posted"));
+        }
+        Posting posting = new Posting(transaction, messageId);
+        lanes[laneFor(transaction.getAccountId())].enqueue(posting);
+        return posting.result;
+    }
+
+    /**
+     * Posts every transaction and waits until all of them are committed. Postings are
+     * independent: a failure on one account does not roll back the others.
+     */
+    public List<Transaction> postAll(List<Transaction> transactions) {
+        List<CompletableFuture<Transaction>> results = transactions.stream()
+                .map(this::post)
+                .collect(Collectors.toList());
+        try {
+            return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a rebuild of the account's balances on its lane, after the postings already
+     * queued for it. The account's movements are replayed in date order: rows that were
+     * inserted without going through a lane (null availableBalance) are added to the
+     * account balance, and every row is stamped again with the balance it leaves behind.
+     */
+    public CompletableFuture<Account> rebuildBalances(UUID accountId) {
+        Rebuild rebuild = new Rebuild(accountId);
+        lanes[laneFor(accountId)].enqueue(rebuild);
+        return rebuild.result;
+    }
+
+    int laneFor(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), lanes.length);
+    }
+
+    private List<Posting> apply(List<Posting> group, Lane lane) {
+        List<Posting> batch = withoutRecordedMessages(group);
+        Map<UUID, Account> accounts = accountRepository.findAllById(
+                        batch.stream().map(p -> p.transaction.getAccountId()).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+        List<Posting> applied = new ArrayList<>(batch.size());
+        Map<UUID, Account> touched = new LinkedHashMap<>();
+        for (Posting posting : batch) {
+            Transaction transaction = posting.transaction;
+            Account account = accounts.get(transaction.getAccountId());
+            if (account == null) {
+                posting.result.completeExceptionally(
+                        new ResourceNotFoundException("Account not found with id: " + transaction.getAccountId()));
+                continue;
+            }
+            double balance = account.getBalance() != null ? account.getBalance() : 0.0;
+            balance += signedAmount(transaction);
+            account.setBalance(balance);
+            transaction.setAvailableBalance(balance);
+
+            if (transaction.getClientId() == null) {
+                transaction.setClientId(account.getClientId());
+            }
+            transaction.setTransactionDate(lane.nextTimestamp());
+            touched.put(account.getAccountId(), account);
+            applied.add(posting);
+        }
+
+        if (!applied.isEmpty()) {
+            transactionRepository.saveAll(applied.stream().map(p -> p.transaction).toList());
+            accountRepository.saveAll(touched.values());
+            messageDeduplicator.record(applied.stream()
+                    .map(p -> p.messageId)
+                    .filter(Objects::nonNull)
+                    .toList());
+        }
+        return applied;
+    }
+
+    private Account rebuild(UUID accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
+        List<Transaction> transactions = transactionRepository.findByAccountIdOrderByTransactionDateAscTransactionIdAsc(accountId);
+
+        // What the stored balance was before the rows it already includes
+        double balance = account.getBalance() != null ? account.getBalance() : 0.0;
+        for (Transaction transaction : transactions) {
+            if (transaction.getAvailableBalance() != null) {
+                balance -= signedAmount(transaction);
+            }
+        }
+        List<Transaction> restamped = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            balance += signedAmount(transaction);
+            if (!Objects.equals(transaction.getAvailableBalance(), balance)) {
+                transaction.setAvailableBalance(balance);
+                restamped.add(transaction);
+            }
+        }
+        transactionRepository.saveAll(restamped);
+        account.setBalance(balance);
+        return accountRepository.save(account);
+    }
+
+    private static double signedAmount(Transaction transaction) {
+        return transaction.isCredit() ? transaction.getAmount() : -transaction.getAmount();
+    }
+
+    /**
+     * Message ids are recorded in the group's commit, and the processed_message key would
+     * fail the whole group on an id that is already there. So postings of a message that
+     * was already posted (a redelivery that got past the listener's check) complete
+     * without being applied again, and a message repeated within the group follows the
+     * outcome of its first posting.
+     */
+    private List<Posting> withoutRecordedMessages(List<Posting> group) {
+        List<String> messageIds = group.stream().map(p -> p.messageId).filter(Objects::nonNull).toList();
+        if (messageIds.isEmpty()) {
+            return group;
+        }
+        Set<String> recorded = messageDeduplicator.findDuplicates(messageIds);
+        Map<String, Posting> firstByMessageId = new HashMap<>();
+        List<Posting> fresh = new ArrayList<>(group.size());
+        for (Posting posting : group) {
+            if (posting.messageId == null) {
+                fresh.add(posting);
+            } else if (recorded.contains(posting.messageId)) {
+                logger.info("Transaction message {} was already posted, skipping it", posting.messageId);
+                posting.result.complete(posting.transaction);
+            } else {
+                Posting first = firstByMessageId.putIfAbsent(posting.messageId, posting);
+                if (first == null) {
+                    fresh.add(posting);
+                } else {
+                    first.result.whenComplete((transaction, failure) -> {
+                        if (failure != null) {
+                            posting.result.completeExceptionally(failure);
+                        } else {
+                            posting.result.complete(posting.transaction);
+                        }
+                    });
+                }
+            }
+        }
+        return fresh;
+    }
+
+    // Retrying can't help when the database itself is unavailable or the failure is transient
+    private static boolean isolatable(RuntimeException e) {
+        return !(e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException);
+    }
+
+    // What a lane works through, in queue order
+    private sealed interface Task permits Posting, Rebuild {
+    }
+
+    private static final class Posting implements Task {
+        private final Transaction transaction;
+        private final String messageId;
+        private final UUID transactionId;
+        private final CompletableFuture<Transaction> result = new CompletableFuture<>();
+
+        private Posting(Transaction transaction, String messageId) {
+            this.transaction = transaction;
+            this.messageId = messageId;
+            this.transactionId = transaction.getTransactionId();
+        }
+
+        // A rolled-back insert leaves the generated id behind, which would turn the retry into a merge
+        private void reset() {
+            transaction.setTransactionId(transactionId);
+            transaction.setTransactionDate(null);
+        }
+    }
+
+    private static final class Rebuild implements Task {
+        private final UUID accountId;
+        private final CompletableFuture<Account> result = new CompletableFuture<>();
+
+        private Rebuild(UUID accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        // ArrayBlockingQueue is a fixed-size circular array: a bounded ring buffer
+        private final BlockingQueue<Task> buffer = new ArrayBlockingQueue<>(laneCapacity);
+        private final Thread thread;
+        private volatile boolean running = true;
+        // Only touched by the lane thread
+        private LocalDateTime lastTimestamp = LocalDateTime.MIN;
+
+        private Lane(int index) {
+            this.thread = new Thread(this, "posting-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void enqueue(Task task) {
+            if (!running) {
+                throw new IllegalStateException("Posting engine is stopped");
+            }
+            try {
+                buffer.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing transaction", e);
+            }
+        }
+
+        /**
+         * The current time at the column's microsecond precision, moved past the previous
+         * stamp when the clock hasn't advanced (or went back), so no two postings of an
+         * account share a date.
+         */
+        private LocalDateTime nextTimestamp() {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            lastTimestamp = now.isAfter(lastTimestamp) ? now : lastTimestamp.plus(1, ChronoUnit.MICROS);
+            return lastTimestamp;
+        }
+
+        @Override
+        public void run() {
+            List<Task> tasks = new ArrayList<>(maxBatch);
+            while (running || !buffer.isEmpty()) {
+                try {
+                    Task first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    tasks.add(first);
+                    buffer.drainTo(tasks, maxBatch - 1);
+                    process(tasks);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    tasks.clear();
+                }
+            }
+        }
+
+        // Consecutive postings commit as one group; a rebuild runs between the groups around it
+        private void process(List<Task> tasks) {
+            List<Posting> group = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                if (task instanceof Posting posting) {
+                    group.add(posting);
+                } else if (task instanceof Rebuild rebuild) {
+                    if (!group.isEmpty()) {
+                        flush(group);
+                        group = new ArrayList<>(tasks.size());
+                    }
+                    rebuild(rebuild);
+                }
+            }
+            if (!group.isEmpty()) {
+                flush(group);
+            }
+        }
+
+        private void rebuild(Rebuild rebuild) {
+            try {
+                Account account = transactionTemplate.execute(status -> PostingEngine.this.rebuild(rebuild.accountId));
+                // Every stamped balance after the first imported row may have changed
+                reportCache.invalidateClient(account.getClientId());
+                rebuild.result.complete(account);
+            } catch (RuntimeException e) {
+                logger.error("Failed to rebuild the balances of account {} on {}", rebuild.accountId, thread.getName(), e);
+                rebuild.result.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Commits the group. If it fails because of its data (a constraint, a bad value),
+         * the postings still pending are retried in halves, so one bad posting fails on its
+         * own instead of taking its neighbours down with it. Failures of the database
+         * itself fail the whole group at once rather than being retried posting by posting.
+         * A posting that fails on its own because another consumer recorded its message id
+         * first completes as already posted, like one caught before the group was applied.
+         */
+        private void flush(List<Posting> batch) {
+            try {
+                List<Posting> applied = transactionTemplate.execute(status -> apply(batch, this));
+                // Callers must not be able to read a cached statement that predates their posting
+                applied.forEach(posting -> reportCache.invalidate(
+                        posting.transaction.getClientId(), posting.transaction.getTransactionDate()));
+                applied.forEach(posting -> posting.result.complete(posting.transaction));
+            } catch (RuntimeException e) {
+                List<Posting> pending = batch.stream().filter(posting -> !posting.result.isDone()).toList();
+                if (pending.size() == 1 && messageDeduplicator.recordedConcurrently(pending.get(0).messageId, e)) {
+                    // Another instance posted this message first; retrying would only hit the key again
+                    Posting posting = pending.get(0);
+                    logger.info("Transaction message {} was posted by another consumer, skipping it", posting.messageId);
+                    posting.reset();
+                    posting.result.complete(posting.transaction);
+                    return;
+                }
+                if (pending.size() <= 1 || !isolatable(e)) {
+                    logger.error("Failed to post a group of {} transactions on {}", pending.size(), thread.getName(), e);
+                    pending.forEach(posting -> posting.result.completeExceptionally(e));
+                    return;
+                }
+                logger.warn("Group of {} transactions failed on {}, retrying it in halves: {}",
+                        pending.size(), thread.getName(), e.toString());
+                pending.forEach(Posting::reset);
+                int half = pending.size() / 2;
+                flush(pending.subList(0, half));
+                flush(pending.subList(half, pending.size()));
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches account statements by {@code (clientId, start, end)}.
+ *
+ * A cached statement holds only what its window determines: the client, and per account
+ * its id, the window's movements and the opening and closing balances. The account
+ * details, whose balance moves with every posting, are attached per request by
+ * {@link ReportService}.
+ *
+ * The cache is bounded by an estimate of the bytes each statement retains. Statements
+ * whose window has already ended when they are built are kept for
+ * {@code report.cache.closed-ttl}; windows still open expire after
+ * {@code report.cache.open-ttl}. Expiry is only a backstop: ledger writes call
+ * {@link #invalidate(UUID, LocalDateTime)} and drop exactly the client's statements
+ * whose window contains the written movement's date, while account changes and client
+ * events (statements embed the client) drop all of the client's statements. A statement
+ * of a closed period therefore stays cached while new movements are posted.
+ *
+ * Each client with cached or in-flight statements keeps an index of its windows and a
+ * generation that every invalidation bumps; the entry goes once its index is empty.
+ * Generations come from one counter, so a re-created entry never matches an old one. A
+ * statement is only stored if no invalidation for its client ran while it was being
+ * built, so a write racing a build can't leave stale data behind.
+ */
+@Component
+public class ReportCache {
+
+    // Rough retained sizes used by the weigher; they only need to be proportional
+    static final int STATEMENT_BASE_BYTES = 1024;
+    static final int ACCOUNT_BYTES = 512;
+    static final int TRANSACTION_BYTES = 256;
+
+    private final Cache<StatementKey, Map<String, Object>> statements;
+    private final Map<UUID, ClientStatements> byClient = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    public ReportCache(@Value("${report.cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${report.cache.open-ttl:5m}") Duration openTtl,
+                       @Value("${report.cache.closed-ttl:24h}") Duration closedTtl) {
+        this.statements = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((StatementKey key, Map<String, Object> statement) -> estimateBytes(statement))
+                .expireAfter(new StatementExpiry(openTtl.toNanos(), closedTtl.toNanos()))
+                .removalListener((StatementKey key, Map<String, Object> statement, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.EXPLICIT) {
+                        forget(key);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached statement or builds it with {@code loader}. Failures are not
+     * cached. Callers share the returned map and must not modify it.
+     */
+    public Map<String, Object> get(UUID clientId, LocalDateTime start, LocalDateTime end,
+                                   Supplier<Map<String, Object>> loader) {
+        StatementKey key = new StatementKey(clientId, start, end);
+        Map<String, Object> cached = statements.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = byClient.computeIfAbsent(clientId, id -> new ClientStatements()).generation;
+        Map<String, Object> statement;
+        try {
+            statement = loader.get();
+        } catch (RuntimeException e) {
+            byClient.computeIfPresent(clientId, (id, client) -> pruned(client));
+            throw e;
+        }
+        byClient.computeIfPresent(clientId, (id, client) -> {
+            if (client.generation == generation) {
+                statements.put(key, statement);
+                client.keys.add(key);
+            }
+            return pruned(client);
+        });
+        return statement;
+    }
+
+    /**
+     * Drops the client's statements whose window contains {@code at}, or all of them
+     * when {@code at} is null.
+     */
+    public void invalidate(UUID clientId, LocalDateTime at) {
+        if (clientId == null) {
+            invalidateAll();
+            return;
+        }
+        byClient.computeIfPresent(clientId, (id, client) -> {
+            client.generation = generations.incrementAndGet();
+            List<StatementKey> stale = client.keys.stream().filter(key -> key.covers(at)).toList();
+            statements.invalidateAll(stale);
+            stale.forEach(client.keys::remove);
+            return pruned(client);
+        });
+    }
+
+    public void invalidateClient(UUID clientId) {
+        invalidate(clientId, null);
+    }
+
+    public void invalidateClients(Collection<UUID> clientIds) {
+        new HashSet<>(clientIds).forEach(this::invalidateClient);
+    }
+
+    public void invalidateAll() {
+        // Index first: a build finishing in between finds no entry and isn't stored
+        byClient.clear();
+        statements.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return statements.stats();
+    }
+
+    public long weightedSize() {
+        statements.cleanUp();
+        return statements.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    // Runs after a size or expiry eviction; serialized with puts through the client's entry
+    private void forget(StatementKey key) {
+        byClient.computeIfPresent(key.clientId(), (id, client) -> {
+            if (!statements.asMap().containsKey(key)) {
+                client.keys.remove(key);
+            }
+            return pruned(client);
+        });
+    }
+
+    // Drops a client with nothing cached; a build still holding its generation just won't be stored
+    private static ClientStatements pruned(ClientStatements client) {
+        return client.keys.isEmpty() ? null : client;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int estimateBytes(Map<String, Object> statement) {
+        long bytes = STATEMENT_BASE_BYTES;
+        Object accounts = statement.get("accounts");
+        if (accounts instanceof List<?> accountsData) {
+            for (Object accountData : accountsData) {
+                bytes += ACCOUNT_BYTES;
+                Object transactions = ((Map<String, Object>) accountData).get("transactions");
+                if (transactions instanceof Collection<?> rows) {
+                    bytes += (long) rows.size() * TRANSACTION_BYTES;
+                }
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    record StatementKey(UUID clientId, LocalDateTime start, LocalDateTime end) {
+
+        boolean covers(LocalDateTime at) {
+            return at == null || (!at.isBefore(start) && !at.isAfter(end));
+        }
+    }
+
+    private final class ClientStatements {
+        private volatile long generation = generations.incrementAndGet();
+        private final Set<StatementKey> keys = new HashSet<>();
+    }
+
+    private static final class StatementExpiry implements Expiry<StatementKey, Map<String, Object>> {
+
+        private final long openTtlNanos;
+        private final long closedTtlNanos;
+
+        private StatementExpiry(long openTtlNanos, long closedTtlNanos) {
+            this.openTtlNanos = openTtlNanos;
+            this.closedTtlNanos = closedTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(StatementKey key, Map<String, Object> statement, long currentTime) {
+            return key.end().isBefore(LocalDateTime.now()) ? closedTtlNanos : openTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(StatementKey key, Map<String, Object> statement, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, statement, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(StatementKey key, Map<String, Object> statement, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.account.service;
+
+import com.account.dto.ReportJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs account statements as background jobs on the bounded {@code reportJobExecutor},
+ * so a large statement never holds a request thread.
+ *
+ * A finished job keeps its statement serialized as JSON. Results up to
+ * {@code report.jobs.spill-threshold-bytes} stay in memory; larger ones are written to
+ * {@code report.jobs.spill-dir} as they are serialized. Jobs, and their spill files,
+ * are dropped {@code report.jobs.retention} after submission.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("reportJobExecutor")
+    private Executor reportJobExecutor;
+
+    private final Cache<UUID, ReportJob> jobs;
+    private final Path spillDirectory;
+    private final int spillThreshold;
+
+    public ReportJobService(@Value("${report.jobs.spill-dir:${java.io.tmpdir}/account-reports}") Path spillDirectory,
+                            @Value("${report.jobs.spill-threshold-bytes:1048576}") int spillThreshold,
+                            @Value("${report.jobs.retention:1h}") Duration retention) {
+        this.spillDirectory = spillDirectory;
+        this.spillThreshold = spillThreshold;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .executor(Runnable::run)
+                .removalListener((UUID jobId, ReportJob job, RemovalCause cause) -> deleteResultFile(job))
+                .build();
+    }
+
+    /**
+     * Queues a statement job and returns it in PENDING state. Throws
+     * {@link java.util.concurrent.RejectedExecutionException} when the job queue is full.
+     */
+    public ReportJob submit(UUID clientId, LocalDateTime startDate, LocalDateTime endDate) {
+        ReportJob job = new ReportJob(UUID.randomUUID(), clientId, startDate, endDate);
+        jobs.put(job.getJobId(), job);
+        try {
+            reportJobExecutor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.invalidate(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ReportJob> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    /**
+     * The serialized statement of a DONE job, served from memory or from its spill file.
+     */
+    public Optional<Resource> getResult(UUID jobId) {
+        return getJob(jobId)
+                .filter(job -> job.getStatus() == ReportJob.Status.DONE)
+                .map(job -> job.isSpilled()
+                        ? new FileSystemResource(job.getResultFile())
+                        : new ByteArrayResource(job.getResultInMemory()));
+    }
+
+    @PreDestroy
+    public void discardJobs() {
+        jobs.invalidateAll();
+    }
+
+    void run(ReportJob job) {
+        job.setStatus(ReportJob.Status.RUNNING);
+        Path spillFile = spillDirectory.resolve(job.getJobId() + ".json");
+        try {
+            Map<String, Object> statement = reportService.generateAccountStatement(
+                    job.getClientId(), job.getStartDate(), job.getEndDate());
+            try (SpillingOutputStream out = new SpillingOutputStream(spillFile)) {
+                objectMapper.writeValue(out, statement);
+                job.setResultBytes(out.size);
+                job.setResultFile(out.file);
+                job.setResultInMemory(out.file == null ? out.memory.toByteArray() : null);
+            }
+            job.setCompletedAt(LocalDateTime.now());
+            job.setStatus(ReportJob.Status.DONE);
+        } catch (Exception e) {
+            logger.error("Report job {} failed", job.getJobId(), e);
+            deleteQuietly(spillFile);
+            job.setError(e.getMessage());
+            job.setCompletedAt(LocalDateTime.now());
+            job.setStatus(ReportJob.Status.FAILED);
+        }
+        // Evicted while running: nobody can download the result any more
+        if (jobs.getIfPresent(job.getJobId()) == null) {
+            deleteResultFile(job);
+        }
+    }
+
+    private static void deleteResultFile(ReportJob job) {
+        if (job != null && job.getResultFile() != null) {
+            deleteQuietly(job.getResultFile());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report spill file {}", file, e);
+        }
+    }
+
+    /**
+     * Buffers in memory until the threshold is crossed, then moves what it has to the
+     * spill file and keeps writing there.
+     */
+    private final class SpillingOutputStream extends OutputStream {
+
+        private final Path target;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private OutputStream fileOut;
+        private Path file;
+        private long size;
+
+        private SpillingOutputStream(Path target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && size + len > spillThreshold) {
+                Files.createDirectories(spillDirectory);
+                fileOut = Files.newOutputStream(target);
+                file = target;
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+            (fileOut != null ? fileOut : memory).write(b, off, len);
+            size += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOut != null) {
+                fileOut.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+    }
+}
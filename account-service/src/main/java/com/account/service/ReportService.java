@@ -5,16 +5,23 @@ import com.account.entity.Account;
 import com.account.entity.Transaction;
 import com.account.repository.AccountRepository;
 import com.account.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
@@ -31,6 +38,13 @@ public class ReportService {
     @Autowired  // Inject RestTemplate here
     private RestTemplate restTemplate;
 
+    @Autowired
+    @Qualifier("reportExecutor")
+    private Executor reportExecutor;
+
+    @Autowired
+    private ReportCache reportCache;
+
     public Map<String, Object> fetchReport(String startDate, String endDate, UUID clientId) {
         String url = "http://localhost:8081/reportes?fecha={startDate},{endDate}&client={clientId}";
 
@@ -49,39 +63,106 @@ public class ReportService {
         return response.getBody();
     }
 
+    @Timed(value = "account.statement.generation", histogram = true, description = "Account statement generation, cache hits included")
     public Map<String, Object> generateAccountStatement(UUID clientId, LocalDateTime startDate, LocalDateTime endDate) {
-        Map<String, Object> reportData = new HashMap<>();
+        // Only the window's data is cached. Account details are read on every call, so they
+        // carry the current balance and no caller shares an entity with another
+        AtomicReference<List<Account>> builtWith = new AtomicReference<>();
+        Map<String, Object> window = reportCache.get(clientId, startDate, endDate,
+                () -> buildAccountStatement(clientId, startDate, endDate, builtWith::set));
+        List<Account> accounts = builtWith.get() != null ? builtWith.get() : accountRepository.findByClientId(clientId);
+        return withAccountDetails(window, accounts);
+    }
 
-        try {
+    private Map<String, Object> buildAccountStatement(UUID clientId, LocalDateTime startDate, LocalDateTime endDate,
+                                                      Consumer<List<Account>> accountsRead) {
+        // The remote client lookup runs while this thread queries accounts and transactions
+        CompletableFuture<ClientDTO> clientLookup = CompletableFuture.supplyAsync(
+                () -> clientServiceCommunicator.getClientDetails(clientId), reportExecutor);
 
-            ClientDTO client = clientServiceCommunicator.getClientDetails(clientId); 
+        try {
+            List<Account> accounts = accountRepository.findByClientId(clientId);
+            Map<UUID, List<Transaction>> transactionsByAccount = accounts.isEmpty()
+                    ? Map.of()
+                    : transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                                    accounts.stream().map(Account::getAccountId).toList(), startDate, endDate)
+                            .stream()
+                            .collect(Collectors.groupingBy(Transaction::getAccountId));
+
+            ClientDTO client = clientLookup.join();
             if (client == null) {
                 throw new IllegalArgumentException("Client not found");
             }
-            reportData.put("client", client);
-
-
-            List<Account> accounts = accountRepository.findByClientId(clientId);
             if (accounts.isEmpty()) {
                 throw new IllegalArgumentException("No accounts found for the client");
             }
+            accountsRead.accept(accounts);
+
+            Map<String, Object> reportData = new HashMap<>();
+            reportData.put("client", client);
 
-            List<Map<String, Object>> accountsData = new ArrayList<>();
+            List<Map<String, Object>> accountsData = new ArrayList<>(accounts.size());
             for (Account account : accounts) {
                 Map<String, Object> accountData = new HashMap<>();
-                accountData.put("accountDetails", account);
+                accountData.put("accountId", account.getAccountId());
 
-                List<Transaction> transactions = transactionRepository.findByAccountIdAndTransactionDateBetween(
-                        account.getAccountId(), startDate, endDate);
-                accountData.put("transactions", transactions);
+                List<Transaction> transactions = transactionsByAccount.getOrDefault(account.getAccountId(), List.of());
+                accountData.put("transactions", List.copyOf(transactions));
+                putWindowBalances(accountData, transactions);
                 accountsData.add(accountData);
             }
-            reportData.put("accounts", accountsData);
+            reportData.put("accounts", List.copyOf(accountsData));
+            return reportData;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error generating account statement", e.getCause());
         } catch (Exception e) {
-
-            e.printStackTrace();
             throw new RuntimeException("Error generating account statement", e);
         }
+    }
+
+    // A fresh response per call: the cached window data plus the accounts as they are now
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> withAccountDetails(Map<String, Object> window, List<Account> accounts) {
+        Map<UUID, Account> accountsById = accounts.stream()
+                .collect(Collectors.toMap(Account::getAccountId, account -> account));
+        List<Map<String, Object>> accountsData = new ArrayList<>();
+        for (Map<String, Object> accountWindow : (List<Map<String, Object>>) window.get("accounts")) {
+            Account account = accountsById.get((UUID) accountWindow.get("accountId"));
+            if (account == null) {
+                continue;
+            }
+            Map<String, Object> accountData = new HashMap<>(accountWindow);
+            accountData.remove("accountId");
+            accountData.put("accountDetails", account);
+            accountsData.add(accountData);
+        }
+        Map<String, Object> reportData = new HashMap<>();
+        reportData.put("client", window.get("client"));
+        reportData.put("accounts", accountsData);
         return reportData;
     }
+
+    /**
+     * Each posted transaction carries the balance after it, so the opening and closing
+     * balances of the statement come from the window's own edge rows: the cost is
+     * proportional to the rows in the window, not to the account's history. The posting
+     * engine assigns transactionDate in posting order, so sorting by it chains the stamped
+     * balances; the id keeps the order stable for rows that share a date.
+     */
+    private static void putWindowBalances(Map<String, Object> accountData, List<Transaction> transactions) {
+        List<Transaction> posted = transactions.stream()
+                .filter(t -> t.getAvailableBalance() != null && t.getTransactionDate() != null)
+                .sorted(Comparator.comparing(Transaction::getTransactionDate)
+                        .thenComparing(Transaction::getTransactionId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        if (posted.isEmpty()) {
+            return;
+        }
+        Transaction first = posted.get(0);
+        double signedAmount = first.isCredit() ? first.getAmount() : -first.getAmount();
+        accountData.put("openingBalance", first.getAvailableBalance() - signedAmount);
+        accountData.put("closingBalance", posted.get(posted.size() - 1).getAvailableBalance());
+    }
 }
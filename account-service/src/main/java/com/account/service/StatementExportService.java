@@ -0,0 +1,171 @@
+package com.account.service;
+
+import com.account.dto.ClientDTO;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes account statements as CSV or PDF while the movements are read from a
+ * forward-only cursor, so memory use does not depend on how many movements the client
+ * has. Output is flushed every {@value TransactionService#EXPORT_CLEAR_INTERVAL} rows
+ * (and on every PDF page), which is also when the persistence context is cleared.
+ *
+ * {@link #open} does the validation before anything is written, so errors can still
+ * become a proper HTTP status; the write methods then run inside the streaming response.
+ */
+@Service
+public class StatementExportService {
+
+    static final String CSV_HEADER = "accountNumber,accountType,transactionId,transactionDate,type,amount,availableBalance";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ClientServiceCommunicator clientServiceCommunicator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public record Statement(ClientDTO client, List<Account> accounts, LocalDateTime startDate, LocalDateTime endDate) {
+    }
+
+    public Statement open(UUID clientId, LocalDateTime startDate, LocalDateTime endDate) {
+        ClientDTO client = clientServiceCommunicator.getClientDetails(clientId);
+        if (client == null) {
+            throw new ResourceNotFoundException("Client not found with id: " + clientId);
+        }
+        List<Account> accounts = accountRepository.findByClientId(clientId);
+        if (accounts.isEmpty()) {
+            throw new ResourceNotFoundException("No accounts found for client: " + clientId);
+        }
+        return new Statement(client, accounts, startDate, endDate);
+    }
+
+    @Transactional(readOnly = true)
+    public long writeCsv(Statement statement, OutputStream out) throws IOException {
+        Map<UUID, Account> accounts = byId(statement.accounts());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        // Let the caller see the header right away
+        writer.flush();
+
+        long written = 0;
+        try (Stream<Transaction> rows = streamRows(statement)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                Account account = accounts.get(transaction.getAccountId());
+                writer.write(csv(account.getAccountNumber()) + ',' + csv(account.getAccountType()) + ','
+                        + transaction.getTransactionId() + ',' + transaction.getTransactionDate() + ','
+                        + (transaction.isCredit() ? "CREDIT" : "DEBIT") + ',' + transaction.getAmount() + ','
+                        + csv(transaction.getAvailableBalance()) + '\n');
+                if (++written % TransactionService.EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    @Transactional(readOnly = true)
+    public long writePdf(Statement statement, OutputStream out) throws IOException {
+        Map<UUID, Account> accounts = byId(statement.accounts());
+        StreamingPdfWriter pdf = new StreamingPdfWriter(out);
+        ClientDTO client = statement.client();
+        pdf.line("ESTADO DE CUENTA");
+        pdf.line("Cliente: " + text(client.getName()) + "  Identificacion: " + text(client.getIdentification()));
+        pdf.line("Periodo: " + statement.startDate() + " - " + statement.endDate());
+        pdf.line("");
+        for (Account account : statement.accounts()) {
+            pdf.line(String.format("Cuenta %-12s %-12s Saldo actual %14s",
+                    text(account.getAccountNumber()), text(account.getAccountType()), text(account.getBalance())));
+        }
+        pdf.flush();
+
+        long written = 0;
+        int pages = pdf.pages();
+        UUID currentAccount = null;
+        try (Stream<Transaction> rows = streamRows(statement)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                if (!transaction.getAccountId().equals(currentAccount)) {
+                    currentAccount = transaction.getAccountId();
+                    Account account = accounts.get(currentAccount);
+                    pdf.line("");
+                    pdf.line("Movimientos de la cuenta " + text(account.getAccountNumber()) + " (" + text(account.getAccountType()) + ")");
+                    pdf.line(String.format("%-26s %-7s %14s %16s", "Fecha", "Tipo", "Monto", "Saldo disponible"));
+                }
+                pdf.line(String.format("%-26s %-7s %14.2f %16s", transaction.getTransactionDate(),
+                        transaction.isCredit() ? "CREDITO" : "DEBITO", transaction.getAmount(),
+                        transaction.getAvailableBalance() != null ? String.format("%.2f", transaction.getAvailableBalance()) : ""));
+                if (++written % TransactionService.EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+                if (pdf.pages() != pages) {
+                    pages = pdf.pages();
+                    pdf.flush();
+                }
+            }
+        }
+        if (written == 0) {
+            pdf.line("");
+            pdf.line("Sin movimientos en el periodo.");
+        }
+        pdf.close();
+        return written;
+    }
+
+    private Stream<Transaction> streamRows(Statement statement) {
+        return transactionRepository.streamStatement(
+                statement.accounts().stream().map(Account::getAccountId).toList(),
+                statement.startDate(), statement.endDate());
+    }
+
+    private static Map<UUID, Account> byId(List<Account> accounts) {
+        return accounts.stream().collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // RFC 4180: quote fields holding separators or quotes, doubling embedded quotes
+    static String csv(Object value) {
+        String text = text(value);
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
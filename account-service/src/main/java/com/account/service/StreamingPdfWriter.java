@@ -0,0 +1,157 @@
+package com.account.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a plain-text PDF one page at a time. Only the current page's content is held
+ * in memory; every finished page goes straight to the output, and the page tree and
+ * cross-reference table (a few bytes per page) are written on {@link #close()}.
+ *
+ * Text is set in Courier so columns line up, and is encoded as WinAnsi (Latin-1);
+ * characters outside it print as '?'.
+ */
+public class StreamingPdfWriter implements Closeable {
+
+    static final int LINES_PER_PAGE = 60;
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT = 3;
+
+    private final CountingOutputStream out;
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> pageObjects = new ArrayList<>();
+    private final StringBuilder page = new StringBuilder(8192);
+    private int linesOnPage;
+
+    public StreamingPdfWriter(OutputStream out) throws IOException {
+        this.out = new CountingOutputStream(out);
+        // Object numbers 1 and 2 are written last, once every page is known
+        offsets.add(0L);
+        offsets.add(0L);
+        write("%PDF-1.4\n%âãÏÓ\n");
+        beginObject(FONT);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    public void line(String text) throws IOException {
+        if (linesOnPage == LINES_PER_PAGE) {
+            endPage();
+        }
+        if (linesOnPage > 0) {
+            page.append("T* ");
+        }
+        page.append('(').append(escape(text)).append(") Tj\n");
+        linesOnPage++;
+    }
+
+    /**
+     * Number of pages written so far, not counting the one in progress.
+     */
+    public int pages() {
+        return pageObjects.size();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (linesOnPage > 0 || pageObjects.isEmpty()) {
+            endPage();
+        }
+        beginObject(PAGES);
+        write("<< /Type /Pages /Count " + pageObjects.size() + " /Kids [");
+        for (int pageObject : pageObjects) {
+            write(pageObject + " 0 R ");
+        }
+        write("] >>\nendobj\n");
+        beginObject(CATALOG);
+        write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+        long xref = out.count;
+        write("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            write(String.format("%010d 00000 n \n", offset));
+        }
+        write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root " + CATALOG + " 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+        out.flush();
+    }
+
+    private void endPage() throws IOException {
+        byte[] content = ("BT /F1 9 Tf 12 TL 36 806 Td\n" + page + "ET\n").getBytes(StandardCharsets.ISO_8859_1);
+        int contentObject = beginObject(offsets.size() + 1);
+        write("<< /Length " + content.length + " >>\nstream\n");
+        out.write(content);
+        write("\nendstream\nendobj\n");
+
+        int pageObject = beginObject(offsets.size() + 1);
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 595 842]"
+                + " /Resources << /Font << /F1 " + FONT + " 0 R >> >> /Contents " + contentObject + " 0 R >>\nendobj\n");
+        pageObjects.add(pageObject);
+
+        page.setLength(0);
+        linesOnPage = 0;
+    }
+
+    private int beginObject(int number) throws IOException {
+        while (offsets.size() < number) {
+            offsets.add(0L);
+        }
+        offsets.set(number - 1, out.count);
+        write(number + " 0 obj\n");
+        return number;
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || c > 255) {
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private long count;
+
+        private CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.account.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Keeps the MySQL {@code transaction} table range-partitioned by month on
+ * {@code transaction_date}, so date-window queries only read the partitions that
+ * overlap the window.
+ *
+ * On the first run the primary key is widened to (transaction_id, transaction_date),
+ * which MySQL requires for partitioning, and one partition is created per month from
+ * the oldest movement up to the current month. Every run then adds partitions
+ * {@code transaction.partitioning.months-ahead} months into the future by splitting the
+ * catch-all {@code pmax}, and detaches months older than
+ * {@code transaction.partitioning.retention-months} into their own
+ * {@code transaction_archive_yyyyMM} tables with EXCHANGE PARTITION, a metadata-only
+ * swap. Archived movements no longer appear in statements or exports. Archiving is
+ * safe to rerun: an archive table left behind by an interrupted run is reused while it
+ * is empty, and a month whose rows already reached its archive is only dropped.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.partitioning.enabled", havingValue = "true")
+public class TransactionPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+
+    static final String TABLE = "transaction";
+    static final String ARCHIVE_PREFIX = "transaction_archive_";
+    static final String CATCH_ALL = "pmax";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                           @Value("${transaction.partitioning.months-ahead:3}") int monthsAhead,
+                                           @Value("${transaction.partitioning.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${transaction.partitioning.cron:0 0 3 * * *}")
+    public void onSchedule() {
+        try {
+            maintain(YearMonth.now());
+        } catch (RuntimeException e) {
+            // Leave the table as it is; the next run retries
+            logger.error("Transaction partition maintenance failed", e);
+        }
+    }
+
+    public synchronized void maintain(YearMonth current) {
+        if (partitions().isEmpty()) {
+            partition(current);
+        }
+        addPartitionsUntil(current.plusMonths(monthsAhead));
+        if (retentionMonths > 0) {
+            archivePartitionsBefore(current.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Partition names in range order, {@code pmax} last; empty while the table is not
+     * partitioned.
+     */
+    public List<String> partitions() {
+        return partitionsOf(TABLE);
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class, table);
+    }
+
+    private void partition(YearMonth current) {
+        LocalDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(transaction_date) FROM " + TABLE, LocalDateTime.class);
+        YearMonth first = oldest != null && YearMonth.from(oldest).isBefore(current) ? YearMonth.from(oldest) : current;
+
+        logger.info("Partitioning {} by month from {}", TABLE, first);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE
+                + " DROP PRIMARY KEY, ADD PRIMARY KEY (transaction_id, transaction_date)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(transaction_date) ("
+                + monthlyPartitions(first, current) + ")");
+    }
+
+    private void addPartitionsUntil(YearMonth last) {
+        YearMonth newest = partitions().stream()
+                .filter(name -> !CATCH_ALL.equals(name))
+                .map(TransactionPartitionMaintenance::monthOf)
+                .max(YearMonth::compareTo)
+                .orElseThrow();
+        if (!newest.isBefore(last)) {
+            return;
+        }
+        logger.info("Adding {} partitions for {} to {}", TABLE, newest.plusMonths(1), last);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + CATCH_ALL + " INTO ("
+                + monthlyPartitions(newest.plusMonths(1), last) + ")");
+    }
+
+    private void archivePartitionsBefore(YearMonth cutoff) {
+        for (String name : partitions()) {
+            if (CATCH_ALL.equals(name) || !monthOf(name).isBefore(cutoff)) {
+                continue;
+            }
+            String archive = ARCHIVE_PREFIX + name.substring(1);
+            logger.info("Archiving partition {} of {} into {}", name, TABLE, archive);
+            // EXCHANGE needs an empty, non-partitioned table with the same structure. Each step
+            // is checked first, so a run that failed halfway through is picked up by the next one
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archive + " LIKE " + TABLE);
+            if (!partitionsOf(archive).isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + archive + " REMOVE PARTITIONING");
+            }
+            if (isEmpty(archive)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + name + " WITH TABLE " + archive);
+            } else if (!isEmpty(TABLE + " PARTITION (" + name + ")")) {
+                // Exchanging now would swap the archived rows back into the live table
+                logger.error("Not archiving partition {}: both it and {} hold rows", name, archive);
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+        }
+    }
+
+    private boolean isEmpty(String table) {
+        return !jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table + ")", Boolean.class);
+    }
+
+    // Definitions for each month in [from, to] followed by the catch-all partition
+    private static String monthlyPartitions(YearMonth from, YearMonth to) {
+        StringJoiner definitions = new StringJoiner(", ");
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + partitionName(month)
+                    + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        return YearMonth.parse(partitionName.substring(1), PARTITION_SUFFIX);
+    }
+}
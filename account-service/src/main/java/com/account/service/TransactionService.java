@@ -1,57 +1,235 @@
 package com.account.service;
 
+import com.account.dto.IngestResult;
+import com.account.entity.Account;
 import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
 import com.account.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.finances.common.dto.KeysetPage;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+
+    // Rows written between persistence context clears during an export
+    static final int EXPORT_CLEAR_INTERVAL = 500;
+
+    @Value("${transaction.ingest.batch-size:1000}")
+    private int ingestBatchSize = 1000;
+
+    @Value("${transaction.ingest.historical-import:false}")
+    private boolean historicalImport;
+
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private PostingEngine postingEngine;
+
+    @Autowired
+    private ReportCache reportCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     public List<Transaction> getTransactionsByAccountAndDateRange(UUID accountId, LocalDateTime startDate, LocalDateTime endDate) {
         return transactionRepository.findByAccountIdAndTransactionDateBetween(accountId, startDate, endDate);
     }
 
+    // Postings go through the engine so the account balance is updated by a single writer
     public Transaction createTransaction(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        return postingEngine.postAll(List.of(transaction)).get(0);
     }
 
+    @Timed(value = "transactions.creation", histogram = true, description = "Posting of a list of transactions")
     public List<Transaction> createTransactions(List<Transaction> transactions) {
-        return transactionRepository.saveAll(transactions);
+        return postingEngine.postAll(transactions);
+    }
+
+    /**
+     * Bulk-ingest path for large arrays. Rows go through a stateless session (no
+     * persistence context, no dirty checking) with JDBC batching, so together with
+     * rewriteBatchedStatements MySQL receives multi-row INSERTs instead of one
+     * round-trip per row. All rows are written in a single transaction.
+     *
+     * Meant for loading historical movements, so it is only available with
+     * {@code transaction.ingest.historical-import=true}. The rows keep their own dates,
+     * which must be in the past, and bypass the posting engine; once they are committed
+     * the engine rebuilds the balances of every account they touched. The result times
+     * the insert only.
+     */
+    public boolean isHistoricalImportEnabled() {
+        return historicalImport;
+    }
+
+    public IngestResult ingestTransactions(List<Transaction> transactions) {
+        if (!historicalImport) {
+            throw new IllegalStateException("Historical import is disabled; post movements through POST /movimientos");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Transaction transaction : transactions) {
+            if (transaction.getAccountId() == null || transaction.getTransactionDate() == null
+                    || transaction.getTransactionDate().isAfter(now)) {
+                throw new IllegalArgumentException("Imported transactions need an accountId and a past transactionDate");
+            }
+            transaction.setAvailableBalance(null);
+        }
+
+        long start = System.nanoTime();
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(ingestBatchSize);
+            org.hibernate.Transaction tx = session.beginTransaction();
+            try {
+                for (Transaction transaction : transactions) {
+                    session.insert(transaction);
+                }
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+        IngestResult result = IngestResult.of(transactions.size(), System.nanoTime() - start);
+        logger.info("Ingested {} transactions in {} ms ({} rows/s)",
+                result.getRows(), result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+
+        List<CompletableFuture<Account>> rebuilds = transactions.stream()
+                .map(Transaction::getAccountId)
+                .distinct()
+                .map(postingEngine::rebuildBalances)
+                .toList();
+        try {
+            rebuilds.forEach(CompletableFuture::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
     }
 
     public List<Transaction> getAllTransactions() {
         return transactionRepository.findAll();
     }
 
+    public KeysetPage<Transaction> getTransactionsPage(UUID after, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<Transaction> rows = after == null
+                ? transactionRepository.findAllByOrderByTransactionIdAsc(fetch)
+                : transactionRepository.findByTransactionIdGreaterThanOrderByTransactionIdAsc(after, fetch);
+        return KeysetPage.of(rows, limit, Transaction::getTransactionId);
+    }
+
+    /**
+     * Writes every matching transaction to {@code out} as newline-delimited JSON,
+     * reading from a forward-only cursor. The persistence context is cleared every
+     * {@value #EXPORT_CLEAR_INTERVAL} rows so heap use stays flat regardless of table size.
+     * Any filter may be null. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long exportTransactions(UUID accountId, UUID clientId, LocalDateTime startDate, LocalDateTime endDate,
+                                   OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Transaction.class);
+        long written = 0;
+        try (Stream<Transaction> rows = transactionRepository.streamForExport(accountId, clientId, startDate, endDate)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++written % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return written;
+    }
+
     public Optional<Transaction> getTransactionById(UUID transactionId) {
         return transactionRepository.findById(transactionId);
     }
 
+    /**
+     * Posted movements are immutable: their amount, direction, date and account are part
+     * of the balance chain stamped on every later movement. A request that would change
+     * any of them is rejected; correct a movement by posting another one.
+     */
     public Transaction updateTransaction(UUID transactionId, Transaction updatedTransaction) {
-        return transactionRepository.findById(transactionId)
-            .map(transaction -> {
-                transaction.setAmount(updatedTransaction.getAmount());
-                transaction.setCredit(updatedTransaction.isCredit());
-                transaction.setTransactionDate(updatedTransaction.getTransactionDate());
-                return transactionRepository.save(transaction);
-            })
-            .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + transactionId));
+        if (updatedTransaction.getAmount() != transaction.getAmount()
+                || updatedTransaction.isCredit() != transaction.isCredit()
+                || (updatedTransaction.getTransactionDate() != null
+                        && !updatedTransaction.getTransactionDate().equals(transaction.getTransactionDate()))
+                || (updatedTransaction.getAccountId() != null
+                        && !updatedTransaction.getAccountId().equals(transaction.getAccountId()))) {
+            throw new IllegalArgumentException("Posted transactions cannot be changed; post a correcting transaction instead");
+        }
+        return transaction;
     }
 
-    public void deleteTransaction(UUID transactionId) {
-        transactionRepository.deleteById(transactionId);
+    /**
+     * Posted movements are never removed: deleting one posts its reversal (same amount,
+     * opposite direction) through the engine, so the balance and every later stamped
+     * balance stay consistent. Returns the reversal.
+     */
+    public Transaction deleteTransaction(UUID transactionId) {
+        Transaction original = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + transactionId));
+        if (original.getReversalOf() != null) {
+            throw new IllegalArgumentException("Transaction " + transactionId + " is a reversal and cannot be reversed");
+        }
+        // The unique reversal_of column stops a concurrent second reversal at commit
+        if (transactionRepository.existsByReversalOf(transactionId)) {
+            throw new IllegalArgumentException("Transaction " + transactionId + " has already been reversed");
+        }
+        Transaction reversal = new Transaction();
+        reversal.setAccountId(original.getAccountId());
+        reversal.setClientId(original.getClientId());
+        reversal.setAmount(original.getAmount());
+        reversal.setCredit(!original.isCredit());
+        reversal.setReversalOf(transactionId);
+        return postingEngine.postAll(List.of(reversal)).get(0);
     }
 
     public void deleteAllTransactions() {
         transactionRepository.deleteAll();
+        reportCache.invalidateAll();
     }
 }
@@ -13,6 +13,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -96,7 +97,7 @@ class AccountControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(updatedAccount)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.accountType").value("Business"))
-                .andExpect(jsonPath("$.balance").value(2000.0));
+                .andExpect(jsonPath("$.balance").value(1000.0));
     }
 
     @Test
@@ -114,20 +115,27 @@ class AccountControllerIntegrationTest {
 
     @Test
     void partialUpdateAccount_ShouldPartiallyUpdateAndReturnAccount_WhenAccountExists() throws Exception {
-        Account partialUpdate = new Account();
-        partialUpdate.setBalance(1500.0);
+        Map<String, Object> partialUpdate = Map.of("accountType", "Business");
 
         mockMvc.perform(patch("/cuentas/{accountId}", account.getAccountId())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(partialUpdate)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.balance").value(1500.0));
+                .andExpect(jsonPath("$.accountType").value("Business"))
+                .andExpect(jsonPath("$.balance").value(1000.0));
+    }
+
+    @Test
+    void partialUpdateAccount_ShouldRejectBalance() throws Exception {
+        mockMvc.perform(patch("/cuentas/{accountId}", account.getAccountId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("balance", 1500.0))))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void partialUpdateAccount_ShouldReturnNotFound_WhenAccountDoesNotExist() throws Exception {
-        Account partialUpdate = new Account();
-        partialUpdate.setBalance(1500.0);
+        Map<String, Object> partialUpdate = Map.of("accountType", "Business");
 
         UUID nonexistentId = UUID.randomUUID();
         mockMvc.perform(patch("/cuentas/{accountId}", nonexistentId)
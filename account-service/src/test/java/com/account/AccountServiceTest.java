@@ -4,14 +4,19 @@ import com.account.entity.Account;
 import com.account.exception.ResourceNotFoundException;
 import com.account.repository.AccountRepository;
 import com.account.service.AccountService;
+import com.account.service.ReportCache;
+import com.finances.common.dto.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,6 +28,9 @@ class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private ReportCache reportCache;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -54,6 +62,23 @@ class AccountServiceTest {
         verify(accountRepository, times(1)).findAll();
     }
 
+    @Test
+    void getAccountsPage_ShouldResumeAfterCursor() {
+        UUID after = UUID.randomUUID();
+        Account first = new Account();
+        first.setAccountId(UUID.randomUUID());
+        Account extra = new Account();
+        extra.setAccountId(UUID.randomUUID());
+        when(accountRepository.findByAccountIdGreaterThanOrderByAccountIdAsc(after, Limit.of(2)))
+                .thenReturn(Arrays.asList(first, extra));
+
+        KeysetPage<Account> page = accountService.getAccountsPage(after, 1);
+
+        assertEquals(List.of(first), page.getItems());
+        assertEquals(first.getAccountId(), KeysetPage.decodeCursor(page.getNextCursor()));
+        verify(accountRepository, never()).findAll();
+    }
+
     @Test
     void getAccountById_ShouldReturnAccount_WhenAccountExists() {
         UUID accountId = UUID.randomUUID();
@@ -93,6 +118,7 @@ class AccountServiceTest {
     void updateAccount_ShouldUpdateAndReturnAccount_WhenAccountExists() {
         UUID accountId = UUID.randomUUID();
         Account existingAccount = new Account();
+        existingAccount.setBalance(250.0);
         Account updatedDetails = new Account();
         updatedDetails.setAccountType("UpdatedType");
         updatedDetails.setBalance(1000.0);
@@ -103,7 +129,7 @@ class AccountServiceTest {
         Account result = accountService.updateAccount(accountId, updatedDetails);
 
         assertEquals("UpdatedType", existingAccount.getAccountType());
-        assertEquals(1000.0, existingAccount.getBalance());
+        assertEquals(250.0, existingAccount.getBalance());
         verify(accountRepository, times(1)).findById(accountId);
         verify(accountRepository, times(1)).save(existingAccount);
     }
@@ -122,15 +148,18 @@ class AccountServiceTest {
     void partialUpdateAccount_ShouldPartiallyUpdateAndReturnAccount_WhenAccountExists() {
         UUID accountId = UUID.randomUUID();
         Account existingAccount = new Account();
-        Account partialDetails = new Account();
-        partialDetails.setBalance(500.0);
+        existingAccount.setAccountType("Checking");
+        Map<String, Object> partialDetails = new HashMap<>();
+        partialDetails.put("accountNumber", 500);
+        partialDetails.put("accountType", null);
 
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(existingAccount));
         when(accountRepository.save(existingAccount)).thenReturn(existingAccount);
 
         Account result = accountService.partialUpdateAccount(accountId, partialDetails);
 
-        assertEquals(500.0, existingAccount.getBalance());
+        assertEquals(500L, existingAccount.getAccountNumber());
+        assertEquals("Checking", existingAccount.getAccountType());
         verify(accountRepository, times(1)).findById(accountId);
         verify(accountRepository, times(1)).save(existingAccount);
     }
@@ -138,7 +167,7 @@ class AccountServiceTest {
     @Test
     void partialUpdateAccount_ShouldReturnNull_WhenAccountDoesNotExist() {
         UUID accountId = UUID.randomUUID();
-        Account partialDetails = new Account();
+        Map<String, Object> partialDetails = Map.of("accountType", "Savings");
         when(accountRepository.findById(accountId)).thenReturn(Optional.empty());
 
         Account result = accountService.partialUpdateAccount(accountId, partialDetails);
@@ -147,24 +176,47 @@ class AccountServiceTest {
         verify(accountRepository, times(1)).findById(accountId);
     }
 
+    @Test
+    void partialUpdateAccount_ShouldRejectFieldsOutsideTheAllowlist() {
+        UUID accountId = UUID.randomUUID();
+        Account existingAccount = new Account();
+        existingAccount.setBalance(100.0);
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(existingAccount));
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.partialUpdateAccount(accountId,
+                Map.of("accountType", "Savings", "clientId", UUID.randomUUID().toString())));
+        assertThrows(IllegalArgumentException.class, () -> accountService.partialUpdateAccount(accountId,
+                Map.of("balance", 500.0)));
+        assertThrows(IllegalArgumentException.class, () -> accountService.partialUpdateAccount(accountId,
+                Map.of("accountNumber", "a lot")));
+
+        assertEquals(100.0, existingAccount.getBalance());
+        verify(accountRepository, never()).save(any());
+    }
+
     @Test
     void deleteAccount_ShouldDeleteAccount_WhenAccountExists() {
         UUID accountId = UUID.randomUUID();
-        when(accountRepository.existsById(accountId)).thenReturn(true);
+        Account account = new Account();
+        account.setAccountId(accountId);
+        account.setClientId(UUID.randomUUID());
+        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
 
         accountService.deleteAccount(accountId);
 
-        verify(accountRepository, times(1)).existsById(accountId);
+        verify(accountRepository, times(1)).findById(accountId);
         verify(accountRepository, times(1)).deleteById(accountId);
+        verify(reportCache, times(1)).invalidateClient(account.getClientId());
     }
 
     @Test
     void deleteAccount_ShouldThrowException_WhenAccountDoesNotExist() {
         UUID accountId = UUID.randomUUID();
-        when(accountRepository.existsById(accountId)).thenReturn(false);
+        when(accountRepository.findById(accountId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> accountService.deleteAccount(accountId));
-        verify(accountRepository, times(1)).existsById(accountId);
+        verify(accountRepository, times(1)).findById(accountId);
+        verify(accountRepository, never()).deleteById(accountId);
     }
 
     @Test
@@ -172,6 +224,7 @@ class AccountServiceTest {
         accountService.deleteAllAccounts();
 
         verify(accountRepository, times(1)).deleteAll();
+        verify(reportCache, times(1)).invalidateAll();
     }
 }
 
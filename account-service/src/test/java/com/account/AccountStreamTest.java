@@ -0,0 +1,173 @@
+package com.account;
+
+import com.account.entity.Account;
+import com.account.listener.AccountMessageListener;
+import com.account.service.AccountService;
+import com.account.service.AccountStreamClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finances.common.dto.KeysetPage;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.account.config.AccountServiceConfig.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the chunked GetAllAccounts protocol end to end, with a stub template that hands
+ * requests to the listener and reply chunks to the client's queue.
+ */
+class AccountStreamTest {
+
+    private static final String REPLY_QUEUE = "amq.gen-reply";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Message> replies = new LinkedBlockingQueue<>();
+    private final List<Account> accounts = new ArrayList<>();
+    private AccountService accountService;
+    private Channel channel;
+    private AccountMessageListener listener;
+    private AccountStreamClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accountService = mock(AccountService.class);
+        when(accountService.getAccountsPage(any(), anyInt())).thenAnswer(invocation -> page(invocation.getArgument(0), invocation.getArgument(1)));
+
+        channel = mock(Channel.class);
+        AMQP.Queue.DeclareOk declared = mock(AMQP.Queue.DeclareOk.class);
+        when(declared.getQueue()).thenReturn(REPLY_QUEUE);
+        when(channel.queueDeclare()).thenReturn(declared);
+
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation -> ((ChannelCallback<?>) invocation.getArgument(0)).doInRabbit(channel));
+        doAnswer(invocation -> {
+            Message request = new Message(new byte[0], new MessageProperties());
+            ((MessagePostProcessor) invocation.getArgument(3)).postProcessMessage(request);
+            listener.handleGetAllAccountsRequest(invocation.getArgument(2), request);
+            return null;
+        }).when(rabbitTemplate).convertAndSend(eq(ACCOUNT_EXCHANGE), eq(ACCOUNT_REQUEST_ROUTING_KEY), any(Object.class), any(MessagePostProcessor.class));
+        doAnswer(invocation -> replies.add(invocation.getArgument(2)))
+                .when(rabbitTemplate).send(eq(""), eq(REPLY_QUEUE), any(Message.class));
+        when(rabbitTemplate.receive(eq(REPLY_QUEUE), anyLong())).thenAnswer(invocation -> replies.poll());
+
+        listener = new AccountMessageListener();
+        ReflectionTestUtils.setField(listener, "accountService", accountService);
+        ReflectionTestUtils.setField(listener, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(listener, "objectMapper", objectMapper);
+
+        client = new AccountStreamClient();
+        ReflectionTestUtils.setField(client, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(client, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(client, "chunkSize", 100);
+        ReflectionTestUtils.setField(client, "credit", 3);
+    }
+
+    @Test
+    void streamAllAccounts_ShouldReturnEveryAccountInOrder() throws Exception {
+        addAccounts(1050);
+
+        List<UUID> streamed;
+        try (Stream<Account> stream = client.streamAllAccounts()) {
+            streamed = stream.map(Account::getAccountId).toList();
+        }
+
+        assertEquals(accounts.stream().map(Account::getAccountId).toList(), streamed);
+        // 11 chunks of up to 100, requested 3 at a time
+        verify(accountService, times(11)).getAccountsPage(any(), eq(100));
+        verify(channel).queueDelete(REPLY_QUEUE);
+    }
+
+    @Test
+    void streamAllAccounts_ShouldOnlyRequestChunksAsTheyAreConsumed() {
+        addAccounts(1050);
+
+        try (Stream<Account> stream = client.streamAllAccounts()) {
+            verify(accountService, never()).getAccountsPage(any(), anyInt());
+
+            Iterator<Account> iterator = stream.iterator();
+            for (int i = 0; i < 301; i++) {
+                iterator.next();
+            }
+            // The first grant covers 3 chunks; the 301st account needed a second request
+            verify(accountService, times(6)).getAccountsPage(any(), anyInt());
+            assertTrue(replies.size() <= 2);
+        }
+    }
+
+    @Test
+    void streamAllAccounts_ShouldEndWithEmptyChunk_WhenThereAreNoAccounts() {
+        try (Stream<Account> stream = client.streamAllAccounts()) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void streamAllAccounts_ShouldFail_WhenAChunkIsMissing() {
+        addAccounts(250);
+        replies.clear();
+        doAnswer(invocation -> {
+            Message chunk = invocation.getArgument(2);
+            Number seq = chunk.getMessageProperties().getHeader(CHUNK_SEQ_HEADER);
+            if (seq.longValue() != 1) {
+                replies.add(chunk);
+            }
+            return null;
+        }).when((RabbitTemplate) ReflectionTestUtils.getField(listener, "rabbitTemplate"))
+                .send(eq(""), eq(REPLY_QUEUE), any(Message.class));
+
+        try (Stream<Account> stream = client.streamAllAccounts()) {
+            assertThrows(AmqpException.class, stream::count);
+        }
+    }
+
+    @Test
+    void handleGetAllAccountsRequest_ShouldReject_WhenThereIsNoReplyQueue() {
+        Message request = new Message("\"GetAllAccounts\"".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+
+        assertThrows(AmqpRejectAndDontRequeueException.class,
+                () -> listener.handleGetAllAccountsRequest(GET_ALL_ACCOUNTS_REQUEST, request));
+        verifyNoInteractions(accountService);
+    }
+
+    private void addAccounts(int count) {
+        IntStream.range(0, count).forEach(i -> {
+            Account account = new Account();
+            account.setAccountId(UUID.randomUUID());
+            account.setAccountNumber((long) i);
+            account.setBalance(0.0);
+            accounts.add(account);
+        });
+        accounts.sort(Comparator.comparing(Account::getAccountId));
+    }
+
+    // Same contract as the repository's keyset queries: ids after the cursor, limit + 1 rows
+    private KeysetPage<Account> page(UUID after, int limit) {
+        List<Account> rows = accounts.stream()
+                .filter(account -> after == null || account.getAccountId().compareTo(after) > 0)
+                .limit(limit + 1)
+                .toList();
+        return KeysetPage.of(rows, limit, Account::getAccountId);
+    }
+}
@@ -0,0 +1,160 @@
+package com.account;
+
+import com.account.config.AccountCodecs;
+import com.account.dto.ClientDTO;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.finances.common.config.BinaryMessageConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMessageConverterTest {
+
+    // Written by client-service's converter for a Client (see its BinaryMessageConverterTest)
+    private static final String CLIENT_MESSAGE_HEX =
+            "01010111111111222233334444555566667777010000000000000007094a6f686e20446f6502"
+            + "4d01000000290b3137303030303030303110417620416d617a6f6e617320313233"
+            + "0b3039393939393939393901";
+
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+
+    private final BinaryMessageConverter converter = converter(true);
+
+    @Test
+    void toMessage_ShouldEncodeAccountInBinary_AndDecodeItBack() {
+        Account account = account(1);
+
+        Message message = converter.toMessage(account, new MessageProperties());
+
+        assertEquals(BinaryMessageConverter.CONTENT_TYPE_BINARY, message.getMessageProperties().getContentType());
+        assertNull(message.getMessageProperties().getContentEncoding());
+        assertNotNull(message.getMessageProperties().getMessageId());
+        assertTrue(message.getBody().length < json.toMessage(account, new MessageProperties()).getBody().length / 2);
+        assertEquals(account, converter.fromMessage(message));
+    }
+
+    @Test
+    void toMessage_ShouldDeflateLargeTransactionLists() {
+        List<Transaction> transactions = IntStream.range(0, 200).mapToObj(BinaryMessageConverterTest::transaction).toList();
+
+        Message message = converter.toMessage(transactions, new MessageProperties());
+
+        assertEquals(BinaryMessageConverter.CONTENT_ENCODING_DEFLATE, message.getMessageProperties().getContentEncoding());
+        assertEquals(transactions, converter.fromMessage(message));
+    }
+
+    @Test
+    void toMessage_ShouldWriteJson_WhenBinaryIsDisabledOrTypeIsNotRegistered() {
+        BinaryMessageConverter jsonOnly = converter(false);
+        Account account = account(1);
+
+        Message disabled = jsonOnly.toMessage(account, new MessageProperties());
+        Message unregistered = converter.toMessage("GetAllAccounts", new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, disabled.getMessageProperties().getContentType());
+        assertArrayEquals(json.toMessage(account, new MessageProperties()).getBody(), disabled.getBody());
+        assertEquals(account, jsonOnly.fromMessage(disabled));
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, unregistered.getMessageProperties().getContentType());
+    }
+
+    @Test
+    void fromMessage_ShouldDecodeClientSentByClientService() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(BinaryMessageConverter.CONTENT_TYPE_BINARY);
+
+        ClientDTO client = (ClientDTO) converter.fromMessage(new Message(HexFormat.of().parseHex(CLIENT_MESSAGE_HEX), properties));
+
+        assertEquals(UUID.fromString("11111111-2222-3333-4444-555566667777"), client.getClientId());
+        assertEquals(7L, client.getId());
+        assertEquals("John Doe", client.getName());
+        assertEquals(41, client.getAge());
+        assertEquals("Av Amazonas 123", client.getAddress());
+        assertEquals("0999999999", client.getPhone());
+        assertTrue(client.getStatus());
+    }
+
+    @Test
+    void fromMessage_ShouldReject_UnknownType() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(BinaryMessageConverter.CONTENT_TYPE_BINARY);
+
+        assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(new Message(new byte[] {1, 42}, properties)));
+    }
+
+    @Test
+    void fromMessage_ShouldReject_CountsAndLengthsLargerThanTheBody() {
+        // A list of 2^28 transactions, then a client whose name claims 2^28 bytes
+        byte[] hugeList = {1, (byte) (3 | 0x80), (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        byte[] hugeName = HexFormat.of().parseHex("0101011111111122223333444455556666777701000000000000000780808080010000");
+
+        for (byte[] body : List.of(hugeList, hugeName)) {
+            MessageConversionException e = assertThrows(MessageConversionException.class, () -> converter.fromMessage(binary(body)));
+            assertTrue(e.getCause().getMessage().contains("bytes left"), e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void fromMessage_ShouldReject_BodiesThatInflatePastTheLimit() throws Exception {
+        ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bomb)) {
+            out.write(new byte[] {1, (byte) (3 | 0x80)});
+            out.write(new byte[4 * 1024 * 1024]);
+        }
+        Message message = binary(bomb.toByteArray());
+        message.getMessageProperties().setContentEncoding(BinaryMessageConverter.CONTENT_ENCODING_DEFLATE);
+        converter.setMaxInflatedBytes(1024 * 1024);
+
+        MessageConversionException e = assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+        assertTrue(e.getCause().getMessage().contains("exceeds"), e.getCause().getMessage());
+    }
+
+    private static Message binary(byte[] body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(BinaryMessageConverter.CONTENT_TYPE_BINARY);
+        return new Message(body, properties);
+    }
+
+    private BinaryMessageConverter converter(boolean sendBinary) {
+        BinaryMessageConverter converter = new BinaryMessageConverter(json, sendBinary, 1024,
+                AccountCodecs.CLIENT, AccountCodecs.ACCOUNT, AccountCodecs.TRANSACTION);
+        converter.setCreateMessageIds(true);
+        return converter.warmUp();
+    }
+
+    static Account account(int i) {
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setAccountNumber(478758L + i);
+        account.setAccountType("Ahorros");
+        account.setBalance(2000.0 + i);
+        account.setStatus(true);
+        account.setClientId(UUID.randomUUID());
+        return account;
+    }
+
+    static Transaction transaction(int i) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setClientId(UUID.randomUUID());
+        transaction.setAccountId(UUID.randomUUID());
+        transaction.setAmount(100.0 + i);
+        transaction.setCredit(i % 2 == 0);
+        transaction.setTransactionDate(LocalDateTime.of(2024, 2, 10, 9, 30).plusMinutes(i).withNano(123_000_000));
+        transaction.setAvailableBalance(i % 3 == 0 ? null : 500.0 + i);
+        return transaction;
+    }
+}
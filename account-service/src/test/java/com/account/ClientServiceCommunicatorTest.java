@@ -0,0 +1,309 @@
+package com.account;
+
+import com.account.dto.ClientDTO;
+import com.account.listener.ClientEventListener;
+import com.account.service.ClientServiceCommunicator;
+import com.account.service.ReportCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientServiceCommunicatorTest {
+
+    private RestTemplate restTemplate;
+    private ClientServiceCommunicator clientServiceCommunicator;
+    private ClientEventListener clientEventListener;
+    private ReportCache reportCache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        clientServiceCommunicator.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        clientServiceCommunicator = new ClientServiceCommunicator(mock(RabbitTemplate.class), 2, Duration.ofMinutes(10), Duration.ofMillis(20));
+        ReflectionTestUtils.setField(clientServiceCommunicator, "restTemplate", restTemplate);
+
+        reportCache = mock(ReportCache.class);
+        clientEventListener = new ClientEventListener();
+        ReflectionTestUtils.setField(clientEventListener, "clientServiceCommunicator", clientServiceCommunicator);
+        ReflectionTestUtils.setField(clientEventListener, "reportCache", reportCache);
+        ReflectionTestUtils.setField(clientEventListener, "objectMapper", objectMapper);
+    }
+
+    @Test
+    void getClientDetails_ShouldServeRepeatedLookupsFromCache() {
+        UUID clientId = UUID.randomUUID();
+        ClientDTO client = stubClient(clientId);
+
+        assertEquals(client, clientServiceCommunicator.getClientDetails(clientId));
+        assertEquals(client, clientServiceCommunicator.getClientDetails(clientId));
+        assertEquals(client, clientServiceCommunicator.getClientDetails(clientId));
+
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(ClientDTO.class));
+        assertEquals(2, clientServiceCommunicator.clientCacheStats().hitCount());
+        assertEquals(1, clientServiceCommunicator.clientCacheStats().missCount());
+    }
+
+    @Test
+    void getClientDetails_ShouldNotCacheMissingClients() {
+        UUID clientId = UUID.randomUUID();
+        when(restTemplate.getForEntity(anyString(), eq(ClientDTO.class))).thenReturn(ResponseEntity.ok(null));
+
+        assertNull(clientServiceCommunicator.getClientDetails(clientId));
+        assertNull(clientServiceCommunicator.getClientDetails(clientId));
+
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(ClientDTO.class));
+    }
+
+    @Test
+    void getClientDetails_ShouldReturnNull_WhenClientServiceAnswersNotFound() {
+        UUID clientId = UUID.randomUUID();
+        when(restTemplate.getForEntity(endsWith(clientId.toString()), eq(ClientDTO.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        assertNull(clientServiceCommunicator.getClientDetails(clientId));
+        assertNull(clientServiceCommunicator.getClientsDetails(List.of(clientId)).get(clientId));
+    }
+
+    @Test
+    void getClientDetails_ShouldEvictLeastRecentlyUsedBeyondMaximumSize() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            UUID clientId = UUID.randomUUID();
+            stubClient(clientId);
+            clientServiceCommunicator.getClientDetails(clientId);
+        }
+
+        assertTrue(awaitEvictions(8, Duration.ofSeconds(2)),
+                "evictions: " + clientServiceCommunicator.clientCacheStats().evictionCount());
+    }
+
+    // Completed lookups only count towards the size once Caffeine has seen the future complete,
+    // which can happen on the lookup thread after the caller has its result, so poll briefly
+    private boolean awaitEvictions(long evictions, Duration timeout) throws InterruptedException {
+        AsyncCache<?, ?> cache = (AsyncCache<?, ?>) ReflectionTestUtils.getField(clientServiceCommunicator, "clientCache");
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            cache.synchronous().cleanUp();
+            if (clientServiceCommunicator.clientCacheStats().evictionCount() >= evictions) {
+                return true;
+            }
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void getClientsDetails_ShouldFetchOnlyCacheMissesInOneRequest() {
+        UUID cachedId = UUID.randomUUID();
+        stubClient(cachedId);
+        clientServiceCommunicator.getClientDetails(cachedId);
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        when(restTemplate.getForObject(contains("?ids="), eq(ClientDTO[].class)))
+                .thenReturn(new ClientDTO[] {client(firstId), client(secondId)});
+
+        Map<UUID, ClientDTO> clients = clientServiceCommunicator.getClientsDetails(
+                List.of(cachedId, firstId, secondId, missingId));
+
+        assertEquals(Set.of(cachedId, firstId, secondId), clients.keySet());
+        ArgumentCaptor<String> url = ArgumentCaptor.forClass(String.class);
+        verify(restTemplate, times(1)).getForObject(url.capture(), eq(ClientDTO[].class));
+        assertFalse(url.getValue().contains(cachedId.toString()));
+        assertTrue(url.getValue().startsWith("http://localhost:8080/clientes?ids="));
+    }
+
+    @Test
+    void getClientDetails_ShouldShareOneRemoteCall_AcrossConcurrentLookupsOfSameClient() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        ClientDTO client = client(clientId);
+        when(restTemplate.getForEntity(endsWith(clientId.toString()), eq(ClientDTO.class))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return ResponseEntity.ok(client);
+        });
+
+        List<ClientDTO> results = lookUpConcurrently(Collections.nCopies(100, clientId));
+
+        assertTrue(results.stream().allMatch(client::equals));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(ClientDTO.class));
+        verify(restTemplate, never()).getForObject(anyString(), eq(ClientDTO[].class));
+    }
+
+    @Test
+    void getClientDetails_ShouldBatchConcurrentMissesOfDifferentClients() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(restTemplate.getForObject(contains("?ids="), eq(ClientDTO[].class))).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            return Arrays.stream(url.substring(url.indexOf("?ids=") + 5).split(","))
+                    .map(id -> client(UUID.fromString(id)))
+                    .toArray(ClientDTO[]::new);
+        });
+        // A window wide enough for every thread to have started, even on a loaded machine
+        clientServiceCommunicator.shutdown();
+        clientServiceCommunicator = new ClientServiceCommunicator(mock(RabbitTemplate.class), 1000, Duration.ofMinutes(10), Duration.ofMillis(300));
+        ReflectionTestUtils.setField(clientServiceCommunicator, "restTemplate", restTemplate);
+        List<UUID> herd = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            herd.add(ids.get(i % ids.size()));
+        }
+
+        List<ClientDTO> results = lookUpConcurrently(herd);
+
+        for (int i = 0; i < herd.size(); i++) {
+            assertEquals(herd.get(i), results.get(i).getClientId());
+        }
+        // 200 lookups of 20 clients: a handful of batch requests instead of 200 calls
+        int remoteCalls = mockingDetails(restTemplate).getInvocations().size();
+        assertTrue(remoteCalls <= 5, "expected a few batched calls but made " + remoteCalls);
+    }
+
+    @Test
+    void getClientDetails_ShouldPropagateFailure_WithoutCachingIt() {
+        UUID clientId = UUID.randomUUID();
+        when(restTemplate.getForEntity(endsWith(clientId.toString()), eq(ClientDTO.class)))
+                .thenThrow(new ResourceAccessException("client-service down"))
+                .thenReturn(ResponseEntity.ok(client(clientId)));
+
+        assertThrows(ResourceAccessException.class, () -> clientServiceCommunicator.getClientDetails(clientId));
+        assertEquals(clientId, clientServiceCommunicator.getClientDetails(clientId).getClientId());
+    }
+
+    @Test
+    void getClientsDetails_ShouldSplitLargeBatches() {
+        clientServiceCommunicator.shutdown();
+        clientServiceCommunicator = new ClientServiceCommunicator(mock(RabbitTemplate.class), 1000, Duration.ofMinutes(10), Duration.ofMillis(200));
+        ReflectionTestUtils.setField(clientServiceCommunicator, "restTemplate", restTemplate);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(restTemplate.getForObject(contains("?ids="), eq(ClientDTO[].class))).thenReturn(new ClientDTO[0]);
+
+        assertTrue(clientServiceCommunicator.getClientsDetails(ids).isEmpty());
+
+        verify(restTemplate, times(3)).getForObject(contains("?ids="), eq(ClientDTO[].class));
+    }
+
+    @Test
+    void handleClientEvent_ShouldEvictUpdatedClientAndItsStatements() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        stubClient(clientId);
+        clientServiceCommunicator.getClientDetails(clientId);
+
+        clientEventListener.handleClientEvent(event("client.update", Map.of("clientId", clientId.toString(), "name", "Jose")));
+        clientServiceCommunicator.getClientDetails(clientId);
+
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(ClientDTO.class));
+        verify(reportCache).invalidateClient(clientId);
+    }
+
+    @Test
+    void handleClientEvent_ShouldEvictDeletedClientById() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        stubClient(clientId);
+        stubClient(otherId);
+        clientServiceCommunicator.getClientDetails(clientId);
+        clientServiceCommunicator.getClientDetails(otherId);
+
+        clientEventListener.handleClientEvent(event("client.deletion", clientId.toString()));
+        clientServiceCommunicator.getClientDetails(clientId);
+        clientServiceCommunicator.getClientDetails(otherId);
+
+        verify(restTemplate, times(2)).getForEntity(endsWith(clientId.toString()), eq(ClientDTO.class));
+        verify(restTemplate, times(1)).getForEntity(endsWith(otherId.toString()), eq(ClientDTO.class));
+    }
+
+    @Test
+    void handleClientEvent_ShouldClearCacheOnBulkDeletion() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        stubClient(clientId);
+        clientServiceCommunicator.getClientDetails(clientId);
+
+        clientEventListener.handleClientEvent(event("client.bulkDeletion", "All clients have been deleted"));
+        clientServiceCommunicator.getClientDetails(clientId);
+
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(ClientDTO.class));
+        verify(reportCache).invalidateAll();
+    }
+
+    private List<ClientDTO> lookUpConcurrently(List<UUID> clientIds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clientIds.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ClientDTO>> lookups = new ArrayList<>();
+            for (UUID clientId : clientIds) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return clientServiceCommunicator.getClientDetails(clientId);
+                }));
+            }
+            start.countDown();
+            List<ClientDTO> results = new ArrayList<>();
+            for (Future<ClientDTO> lookup : lookups) {
+                results.add(lookup.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ClientDTO client(UUID clientId) {
+        ClientDTO client = new ClientDTO();
+        client.setClientId(clientId);
+        return client;
+    }
+
+    private ClientDTO stubClient(UUID clientId) {
+        ClientDTO client = client(clientId);
+        when(restTemplate.getForEntity(endsWith(clientId.toString()), eq(ClientDTO.class)))
+                .thenReturn(ResponseEntity.ok(client));
+        return client;
+    }
+
+    private Message event(String routingKey, Object payload) throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setReceivedRoutingKey(routingKey);
+        return new Message(objectMapper.writeValueAsBytes(payload), properties);
+    }
+}
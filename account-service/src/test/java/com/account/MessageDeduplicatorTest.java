@@ -0,0 +1,161 @@
+package com.account;
+
+import com.account.repository.ProcessedMessageRepository;
+import com.account.service.MessageDeduplicator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageDeduplicatorTest {
+
+    private static final Instant NOW = Instant.parse("2024-03-01T12:30:00Z");
+
+    private ProcessedMessageRepository processedMessageRepository;
+    private MessageDeduplicator messageDeduplicator;
+
+    @BeforeEach
+    void setUp() {
+        processedMessageRepository = mock(ProcessedMessageRepository.class);
+        // Stands in for the table; the warm-up asks only for rows since its cutoff
+        List<Object[]> table = List.of(
+                recorded("loaded-1", NOW.minus(Duration.ofHours(30))),
+                recorded("loaded-2", NOW.minus(Duration.ofMinutes(30))));
+        when(processedMessageRepository.streamRecordedSince(any())).thenAnswer(invocation -> {
+            LocalDateTime cutoff = invocation.getArgument(0);
+            return table.stream().filter(row -> !((LocalDateTime) row[1]).isBefore(cutoff));
+        });
+        // 10 000 ids per hourly slice
+        messageDeduplicator = new MessageDeduplicator(processedMessageRepository, mock(PlatformTransactionManager.class),
+                10_000 / 3600.0, 0.01, Duration.ofDays(1), Duration.ofHours(1));
+        setClock(NOW);
+        messageDeduplicator.load();
+    }
+
+    @Test
+    void isDuplicate_ShouldSkipTheTable_ForIdsTheFilterHasNotSeen() {
+        when(processedMessageRepository.existsById("loaded-2")).thenReturn(true);
+
+        assertTrue(messageDeduplicator.isDuplicate("loaded-2"));
+        assertFalse(messageDeduplicator.isDuplicate("fresh"));
+
+        verify(processedMessageRepository, never()).existsById("fresh");
+    }
+
+    @Test
+    void load_ShouldOnlyReadIdsRecordedWithinTheTtl() {
+        verify(processedMessageRepository).streamRecordedSince(LocalDateTime.ofInstant(NOW.minus(Duration.ofDays(1)), ZoneOffset.UTC));
+
+        assertFalse(messageDeduplicator.isDuplicate("loaded-1"));
+        verify(processedMessageRepository, never()).existsById("loaded-1");
+    }
+
+    @Test
+    void isDuplicate_ShouldRarelyHitTheTable_ForFreshIds() {
+        messageDeduplicator.record(IntStream.range(0, 10_000).mapToObj(i -> "seen-" + i).toList());
+
+        IntStream.range(0, 10_000).forEach(i -> messageDeduplicator.isDuplicate(UUID.randomUUID().toString()));
+
+        // Sized for 1% false positives at 10 000 entries per slice; allow some slack
+        verify(processedMessageRepository, atMost(200)).existsById(anyString());
+    }
+
+    @Test
+    void isDuplicate_ShouldStayAccurate_AfterDaysAtTheExpectedRate() {
+        for (int hour = 1; hour <= 72; hour++) {
+            setClock(NOW.plus(Duration.ofHours(hour)));
+            int slice = hour;
+            messageDeduplicator.record(IntStream.range(0, 10_000).mapToObj(i -> slice + "-" + i).toList());
+            messageDeduplicator.cleanUp();
+        }
+
+        IntStream.range(0, 10_000).forEach(i -> messageDeduplicator.isDuplicate(UUID.randomUUID().toString()));
+
+        verify(processedMessageRepository, atMost(200)).existsById(anyString());
+        verify(processedMessageRepository, times(1)).streamRecordedSince(any());
+    }
+
+    @Test
+    void findDuplicates_ShouldOnlyQueryIdsTheFilterCannotRuleOut() {
+        when(processedMessageRepository.findRecordedIds(List.of("loaded-2"))).thenReturn(List.of("loaded-2"));
+
+        Set<String> duplicates = messageDeduplicator.findDuplicates(List.of("fresh-1", "loaded-2", "fresh-2"));
+
+        assertEquals(Set.of("loaded-2"), duplicates);
+        verify(processedMessageRepository).findRecordedIds(List.of("loaded-2"));
+    }
+
+    @Test
+    void runOnce_ShouldRunTheWorkOncePerMessageId() {
+        AtomicInteger runs = new AtomicInteger();
+
+        assertTrue(messageDeduplicator.runOnce("message-1", runs::incrementAndGet));
+        when(processedMessageRepository.existsById("message-1")).thenReturn(true);
+        assertFalse(messageDeduplicator.runOnce("message-1", runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        verify(processedMessageRepository).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void runOnce_ShouldTreatAKeyConflictAsADuplicate_WhenAnotherConsumerRecordedTheId() {
+        when(processedMessageRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(processedMessageRepository.existsById("message-1")).thenReturn(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(messageDeduplicator.runOnce("message-1", runs::incrementAndGet));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void recordedConcurrently_ShouldRememberTheId_WhenTheKeyRejectedARecordedId() {
+        when(processedMessageRepository.existsById("elsewhere")).thenReturn(true);
+        assertFalse(messageDeduplicator.isDuplicate("elsewhere"));
+
+        assertTrue(messageDeduplicator.recordedConcurrently("elsewhere", new DataIntegrityViolationException("Duplicate entry")));
+
+        // The next delivery is caught before it is posted again
+        assertTrue(messageDeduplicator.isDuplicate("elsewhere"));
+        assertFalse(messageDeduplicator.recordedConcurrently("elsewhere", new IllegalStateException("not a key conflict")));
+        assertFalse(messageDeduplicator.recordedConcurrently("fresh", new DataIntegrityViolationException("Data too long")));
+    }
+
+    @Test
+    void cleanUp_ShouldDeleteExpiredIdsAndDropTheirSlices_WithoutReloadingTheTable() {
+        when(processedMessageRepository.deleteProcessedBefore(any())).thenReturn(1);
+        when(processedMessageRepository.existsById("loaded-2")).thenReturn(true);
+
+        messageDeduplicator.cleanUp();
+
+        verify(processedMessageRepository).deleteProcessedBefore(LocalDateTime.ofInstant(NOW.minus(Duration.ofDays(1)), ZoneOffset.UTC));
+        assertFalse(messageDeduplicator.isDuplicate("loaded-1"));
+        assertTrue(messageDeduplicator.isDuplicate("loaded-2"));
+        verify(processedMessageRepository, never()).existsById("loaded-1");
+        verify(processedMessageRepository, times(1)).streamRecordedSince(any());
+    }
+
+    private void setClock(Instant now) {
+        ReflectionTestUtils.setField(messageDeduplicator, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static Object[] recorded(String messageId, Instant processedAt) {
+        return new Object[] {messageId, LocalDateTime.ofInstant(processedAt, ZoneOffset.UTC)};
+    }
+}
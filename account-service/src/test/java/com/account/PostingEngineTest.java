@@ -0,0 +1,353 @@
+package com.account;
+
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import com.account.service.MessageDeduplicator;
+import com.account.service.PostingEngine;
+import com.account.service.ReportCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class PostingEngineTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private MessageDeduplicator messageDeduplicator;
+
+    private PostingEngine postingEngine;
+
+    // Stands in for the accounts table; only lane threads mutate balances
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(accountRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Account> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                Account account = accounts.get((UUID) id);
+                if (account != null) {
+                    found.add(account);
+                }
+            }
+            return found;
+        });
+        postingEngine = new PostingEngine(accountRepository, transactionRepository, transactionManager, reportCache, messageDeduplicator, 4, 64, 16);
+        postingEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        postingEngine.stop();
+    }
+
+    @Test
+    void post_ShouldApplyCreditsAndDebitsToBalance() {
+        Account account = account(100.0);
+
+        Transaction credit = transaction(account, 50.0, true);
+        Transaction debit = transaction(account, 30.0, false);
+        List<Transaction> posted = postingEngine.postAll(List.of(credit, debit));
+
+        assertEquals(List.of(credit, debit), posted);
+        assertEquals(120.0, account.getBalance());
+        assertEquals(150.0, credit.getAvailableBalance());
+        assertEquals(120.0, debit.getAvailableBalance());
+        assertEquals(account.getClientId(), credit.getClientId());
+        assertNotNull(debit.getTransactionDate());
+        verify(transactionManager, atLeastOnce()).commit(any());
+    }
+
+    @Test
+    void post_ShouldInvalidateCachedStatementsCoveringTheMovement() {
+        Account account = account(0.0);
+        Transaction credit = transaction(account, 10.0, true);
+
+        postingEngine.postAll(List.of(credit));
+
+        verify(reportCache, times(1)).invalidate(account.getClientId(), credit.getTransactionDate());
+    }
+
+    @Test
+    void post_ShouldRecordMessageIdsOfAppliedPostings() {
+        Account account = account(0.0);
+
+        postingEngine.post(transaction(account, 10.0, true), "message-1").join();
+        postingEngine.post(transaction(account, 5.0, true)).join();
+
+        verify(messageDeduplicator).record(List.of("message-1"));
+        verify(messageDeduplicator).record(List.of());
+    }
+
+    @Test
+    void post_ShouldSkipMessagesAlreadyRecorded_AndRecordRepeatedIdsOnce() throws Exception {
+        Account account = account(0.0);
+        when(messageDeduplicator.findDuplicates(any())).thenReturn(Set.of("message-1"));
+        CountDownLatch release = blockLane(account);
+
+        List<CompletableFuture<Transaction>> postings = List.of(
+                postingEngine.post(transaction(account, 10.0, true), "message-1"),
+                postingEngine.post(transaction(account, 20.0, true), "message-2"),
+                postingEngine.post(transaction(account, 20.0, true), "message-2"));
+        release.countDown();
+        postings.forEach(CompletableFuture::join);
+
+        assertEquals(20.0, account.getBalance());
+        verify(messageDeduplicator).record(List.of("message-2"));
+    }
+
+    @Test
+    void post_ShouldStampStrictlyIncreasingDates_InPostingOrder() {
+        Account account = account(0.0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transactions.add(transaction(account, 1.0, true));
+        }
+
+        postingEngine.postAll(transactions);
+
+        for (int i = 1; i < transactions.size(); i++) {
+            Transaction previous = transactions.get(i - 1);
+            Transaction current = transactions.get(i);
+            assertTrue(current.getTransactionDate().isAfter(previous.getTransactionDate()));
+            assertEquals(previous.getAvailableBalance() + 1.0, current.getAvailableBalance());
+        }
+    }
+
+    @Test
+    void post_ShouldReject_WhenCallerSuppliesTheDate() {
+        Account account = account(100.0);
+        Transaction backdated = transaction(account, 50.0, true);
+        backdated.setTransactionDate(LocalDateTime.now().minusDays(30));
+
+        assertThrows(IllegalArgumentException.class, () -> postingEngine.postAll(List.of(backdated)));
+        assertEquals(100.0, account.getBalance());
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void rebuildBalances_ShouldFoldImportedRowsIntoTheBalanceAndRestampInDateOrder() {
+        Account account = account(100.0);
+        LocalDateTime now = LocalDateTime.now();
+        // Posted earlier by the engine: 90.0 before it, 100.0 after
+        Transaction posted = transaction(account, 10.0, true);
+        posted.setTransactionDate(now.minusDays(2));
+        posted.setAvailableBalance(100.0);
+        Transaction importedBefore = transaction(account, 5.0, false);
+        importedBefore.setTransactionDate(now.minusDays(3));
+        Transaction importedAfter = transaction(account, 20.0, true);
+        importedAfter.setTransactionDate(now.minusDays(1));
+        when(accountRepository.findById(account.getAccountId())).thenReturn(Optional.of(account));
+        when(accountRepository.save(account)).thenReturn(account);
+        when(transactionRepository.findByAccountIdOrderByTransactionDateAscTransactionIdAsc(account.getAccountId()))
+                .thenReturn(List.of(importedBefore, posted, importedAfter));
+
+        postingEngine.rebuildBalances(account.getAccountId()).join();
+
+        assertEquals(85.0, importedBefore.getAvailableBalance());
+        assertEquals(95.0, posted.getAvailableBalance());
+        assertEquals(115.0, importedAfter.getAvailableBalance());
+        assertEquals(115.0, account.getBalance());
+        verify(reportCache).invalidateClient(account.getClientId());
+    }
+
+    @Test
+    void rebuildBalances_ShouldRunAfterThePostingsQueuedBeforeIt() throws Exception {
+        Account account = account(0.0);
+        when(accountRepository.findById(account.getAccountId())).thenReturn(Optional.of(account));
+        when(accountRepository.save(account)).thenReturn(account);
+        CountDownLatch release = blockLane(account);
+
+        CompletableFuture<Transaction> credit = postingEngine.post(transaction(account, 10.0, true));
+        CompletableFuture<Account> rebuild = postingEngine.rebuildBalances(account.getAccountId());
+        release.countDown();
+        rebuild.join();
+
+        assertTrue(credit.isDone());
+        assertEquals(10.0, account.getBalance());
+    }
+
+    @Test
+    void post_ShouldFail_WhenAccountDoesNotExist() {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(UUID.randomUUID());
+        transaction.setAmount(10.0);
+
+        assertThrows(ResourceNotFoundException.class, () -> postingEngine.postAll(List.of(transaction)));
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void post_ShouldFailEveryPostingInGroup_WhenCommitFails() {
+        Account account = account(0.0);
+        when(transactionRepository.saveAll(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThrows(IllegalStateException.class,
+                () -> postingEngine.postAll(List.of(transaction(account, 10.0, true))));
+    }
+
+    @Test
+    void post_ShouldOnlyFailTheBadPosting_WhenItsDataFailsTheGroup() throws Exception {
+        Account account = account(0.0);
+        Transaction poison = transaction(account, 1.0, true);
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (Object transaction : (Iterable<?>) invocation.getArgument(0)) {
+                if (transaction == poison) {
+                    throw new DataIntegrityViolationException("Data too long");
+                }
+            }
+            return invocation.getArgument(0);
+        });
+        CountDownLatch release = blockLane(account);
+
+        List<CompletableFuture<Transaction>> postings = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            postings.add(postingEngine.post(i == 4 ? poison : transaction(account, 1.0, true)));
+        }
+        release.countDown();
+
+        for (int i = 0; i < postings.size(); i++) {
+            CompletableFuture<Transaction> posting = postings.get(i);
+            if (i == 4) {
+                CompletionException failure = assertThrows(CompletionException.class, posting::join);
+                assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+            } else {
+                assertNotNull(posting.join());
+            }
+        }
+    }
+
+    @Test
+    void post_ShouldCompleteAsAlreadyPosted_WhenAnotherConsumerRecordedTheMessageFirst() throws Exception {
+        Account account = account(0.0);
+        DataIntegrityViolationException keyConflict = new DataIntegrityViolationException("Duplicate entry 'message-1'");
+        doThrow(keyConflict).when(messageDeduplicator).record(argThat(ids -> ids.contains("message-1")));
+        when(messageDeduplicator.recordedConcurrently("message-1", keyConflict)).thenReturn(true);
+        CountDownLatch release = blockLane(account);
+
+        CompletableFuture<Transaction> duplicate = postingEngine.post(transaction(account, 10.0, true), "message-1");
+        CompletableFuture<Transaction> fresh = postingEngine.post(transaction(account, 5.0, true), "message-2");
+        release.countDown();
+
+        // Acknowledged like any redelivery instead of failing and being retried
+        assertNull(duplicate.join().getTransactionDate());
+        assertNotNull(fresh.join().getTransactionDate());
+        verify(messageDeduplicator).recordedConcurrently("message-1", keyConflict);
+    }
+
+    @Test
+    void post_ShouldNotRetryTheGroup_WhenTheDatabaseIsUnavailable() throws Exception {
+        Account account = account(0.0);
+        CountDownLatch release = blockLane(account);
+        when(transactionRepository.saveAll(any())).thenThrow(new CannotCreateTransactionException("connection refused"));
+
+        List<CompletableFuture<Transaction>> postings = List.of(
+                postingEngine.post(transaction(account, 1.0, true)),
+                postingEngine.post(transaction(account, 1.0, true)),
+                postingEngine.post(transaction(account, 1.0, true)));
+        release.countDown();
+
+        postings.forEach(posting -> assertThrows(CompletionException.class, posting::join));
+        // The blocker's group and the failed one: no retries in halves
+        verify(transactionRepository, times(2)).saveAll(any());
+    }
+
+    @Test
+    void post_ShouldKeepBalancesConsistent_UnderConcurrentPosting() throws Exception {
+        List<Account> hotAccounts = List.of(account(0.0), account(0.0), account(0.0));
+        int threads = 8;
+        int postsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < postsPerThread; i++) {
+                    Account account = hotAccounts.get(i % hotAccounts.size());
+                    postingEngine.post(transaction(account, 1.0, i % 4 != 0)).join();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // 3 credits and 1 debit of 1.0 per 4 posts: net +2 per 4 posts, spread across the accounts
+        double total = hotAccounts.stream().mapToDouble(Account::getBalance).sum();
+        assertEquals(threads * postsPerThread / 2.0, total);
+    }
+
+    // Holds the account's lane until the latch is released, so the next postings form one group
+    private CountDownLatch blockLane(Account account) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Transaction blocker = transaction(account, 0.0, true);
+        blocker.setClientId(UUID.randomUUID());
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return null;
+        }).when(reportCache).invalidate(eq(blocker.getClientId()), any());
+        postingEngine.post(blocker);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private Account account(double balance) {
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setClientId(UUID.randomUUID());
+        account.setBalance(balance);
+        accounts.put(account.getAccountId(), account);
+        return account;
+    }
+
+    private static Transaction transaction(Account account, double amount, boolean credit) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(account.getAccountId());
+        transaction.setAmount(amount);
+        transaction.setCredit(credit);
+        return transaction;
+    }
+}
@@ -0,0 +1,168 @@
+package com.account;
+
+import com.account.service.ReportCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportCacheTest {
+
+    private static final LocalDateTime NOVEMBER = LocalDateTime.of(2024, 11, 1, 0, 0);
+    private static final LocalDateTime DECEMBER = LocalDateTime.of(2024, 12, 1, 0, 0);
+
+    private ReportCache reportCache;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        reportCache = new ReportCache(1_000_000, Duration.ofMinutes(5), Duration.ofHours(24));
+    }
+
+    @Test
+    void get_ShouldBuildOncePerKey() {
+        UUID clientId = UUID.randomUUID();
+
+        Map<String, Object> first = statement(clientId, NOVEMBER, DECEMBER);
+        Map<String, Object> second = statement(clientId, NOVEMBER, DECEMBER);
+        statement(clientId, NOVEMBER, DECEMBER.plusDays(1));
+
+        assertSame(first, second);
+        assertEquals(2, builds.get());
+        assertEquals(1, reportCache.stats().hitCount());
+    }
+
+    @Test
+    void invalidate_ShouldOnlyDropWindowsContainingTheMovement() {
+        UUID clientId = UUID.randomUUID();
+        UUID otherClientId = UUID.randomUUID();
+        statement(clientId, NOVEMBER, DECEMBER);
+        statement(clientId, DECEMBER, DECEMBER.plusMonths(1));
+        statement(otherClientId, NOVEMBER, DECEMBER);
+
+        reportCache.invalidate(clientId, NOVEMBER.plusDays(10));
+        builds.set(0);
+        statement(clientId, NOVEMBER, DECEMBER);
+        statement(clientId, DECEMBER, DECEMBER.plusMonths(1));
+        statement(otherClientId, NOVEMBER, DECEMBER);
+
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void invalidateClient_ShouldDropEveryWindowOfTheClient() {
+        UUID clientId = UUID.randomUUID();
+        statement(clientId, NOVEMBER, DECEMBER);
+        statement(clientId, DECEMBER, DECEMBER.plusMonths(1));
+
+        reportCache.invalidateClient(clientId);
+        builds.set(0);
+        statement(clientId, NOVEMBER, DECEMBER);
+        statement(clientId, DECEMBER, DECEMBER.plusMonths(1));
+
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void get_ShouldNotStoreStatementBuiltWhileClientWasInvalidated() {
+        UUID clientId = UUID.randomUUID();
+
+        // A posting commits while the statement is being read from the database
+        reportCache.get(clientId, NOVEMBER, DECEMBER, () -> {
+            reportCache.invalidate(clientId, NOVEMBER.plusDays(1));
+            return build(0);
+        });
+        builds.set(0);
+        statement(clientId, NOVEMBER, DECEMBER);
+
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheFailures() {
+        UUID clientId = UUID.randomUUID();
+
+        assertThrows(IllegalArgumentException.class, () -> reportCache.get(clientId, NOVEMBER, DECEMBER, () -> {
+            throw new IllegalArgumentException("Client not found");
+        }));
+        statement(clientId, NOVEMBER, DECEMBER);
+
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void get_ShouldForgetClientsWithNothingCached() {
+        reportCache = new ReportCache(64 * 1024, Duration.ofMinutes(5), Duration.ofHours(24));
+        UUID invalidated = UUID.randomUUID();
+        statement(invalidated, NOVEMBER, DECEMBER);
+        reportCache.invalidateClient(invalidated);
+        assertThrows(IllegalArgumentException.class, () -> reportCache.get(UUID.randomUUID(), NOVEMBER, DECEMBER, () -> {
+            throw new IllegalArgumentException("Client not found");
+        }));
+        // Evicted by size
+        for (int i = 0; i < 50; i++) {
+            reportCache.get(UUID.randomUUID(), NOVEMBER, DECEMBER, () -> build(50));
+        }
+        reportCache.weightedSize();
+        // Caffeine notifies removals on the common pool, and the listener is what prunes the index
+        ForkJoinPool.commonPool().awaitQuiescence(5, TimeUnit.SECONDS);
+
+        Map<?, ?> byClient = (Map<?, ?>) ReflectionTestUtils.getField(reportCache, "byClient");
+        assertTrue(byClient.size() < 50);
+        assertFalse(byClient.containsKey(invalidated));
+        reportCache.invalidateAll();
+        assertTrue(byClient.isEmpty());
+    }
+
+    @Test
+    void get_ShouldWeighStatementsByTheirRows() {
+        reportCache.get(UUID.randomUUID(), NOVEMBER, DECEMBER, () -> build(0));
+        long empty = reportCache.weightedSize();
+        reportCache.invalidateAll();
+        reportCache.get(UUID.randomUUID(), NOVEMBER, DECEMBER, () -> build(100));
+
+        assertTrue(reportCache.weightedSize() > empty);
+    }
+
+    @Test
+    void get_ShouldStayWithinByteBound() {
+        reportCache = new ReportCache(64 * 1024, Duration.ofMinutes(5), Duration.ofHours(24));
+        for (int i = 0; i < 50; i++) {
+            reportCache.get(UUID.randomUUID(), NOVEMBER, DECEMBER, () -> build(50));
+        }
+
+        assertTrue(reportCache.weightedSize() <= 64 * 1024);
+        assertTrue(reportCache.stats().evictionCount() > 0);
+    }
+
+    private Map<String, Object> statement(UUID clientId, LocalDateTime start, LocalDateTime end) {
+        return reportCache.get(clientId, start, end, () -> {
+            builds.incrementAndGet();
+            return build(1);
+        });
+    }
+
+    private static Map<String, Object> build(int transactions) {
+        Map<String, Object> accountData = new HashMap<>();
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            rows.add(new Object());
+        }
+        accountData.put("transactions", rows);
+        Map<String, Object> statement = new HashMap<>();
+        statement.put("accounts", List.of(accountData));
+        return statement;
+    }
+}
@@ -1,29 +1,49 @@
 package com.account;
 
+import com.account.config.AccountServiceSecurityConfig;
 import com.account.controller.ReportController;
+import com.account.dto.ReportJob;
+import com.account.service.ReportJobService;
 import com.account.service.ReportService;
+import com.account.service.StatementExportService;
+import com.account.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(ReportController.class)
+@Import(AccountServiceSecurityConfig.class)
 class ReportControllerIntegrationTest {
 
     @Autowired
@@ -32,6 +52,12 @@ class ReportControllerIntegrationTest {
     @MockBean
     private ReportService reportService;
 
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private StatementExportService statementExportService;
+
     private UUID clientId;
     private String validStartDate;
     private String validEndDate;
@@ -88,5 +114,119 @@ class ReportControllerIntegrationTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(content().string("An unexpected error occurred."));
     }
-}
 
+    @Test
+    void submitReportJob_ShouldReturnAcceptedWithJobLocation() throws Exception {
+        // Arrange
+        ReportJob job = new ReportJob(UUID.randomUUID(), clientId, LocalDateTime.parse(validStartDate), LocalDateTime.parse(validEndDate));
+        when(reportJobService.submit(eq(clientId), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/reportes/jobs")
+                        .param("fecha", validStartDate + "," + validEndDate)
+                        .param("client", clientId.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/reportes/jobs/" + job.getJobId()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void submitReportJob_ShouldReturnServiceUnavailable_WhenQueueIsFull() throws Exception {
+        // Arrange
+        when(reportJobService.submit(eq(clientId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new RejectedExecutionException("queue full"));
+
+        // Act & Assert
+        mockMvc.perform(post("/reportes/jobs")
+                        .param("fecha", validStartDate + "," + validEndDate)
+                        .param("client", clientId.toString()))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getReportJobResult_ShouldReturnConflict_WhileJobIsRunning() throws Exception {
+        // Arrange
+        ReportJob job = new ReportJob(UUID.randomUUID(), clientId, LocalDateTime.parse(validStartDate), LocalDateTime.parse(validEndDate));
+        job.setStatus(ReportJob.Status.RUNNING);
+        when(reportJobService.getJob(job.getJobId())).thenReturn(Optional.of(job));
+        when(reportJobService.getResult(job.getJobId())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/reportes/jobs/{jobId}/result", job.getJobId()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void getReportJobResult_ShouldDownloadResult_WhenJobIsDone() throws Exception {
+        // Arrange
+        byte[] body = "{\"client\":\"Mock Client\"}".getBytes();
+        ReportJob job = new ReportJob(UUID.randomUUID(), clientId, LocalDateTime.parse(validStartDate), LocalDateTime.parse(validEndDate));
+        job.setStatus(ReportJob.Status.DONE);
+        job.setResultBytes(body.length);
+        when(reportJobService.getJob(job.getJobId())).thenReturn(Optional.of(job));
+        when(reportJobService.getResult(job.getJobId())).thenReturn(Optional.of(new ByteArrayResource(body)));
+
+        // Act & Assert
+        mockMvc.perform(get("/reportes/jobs/{jobId}/result", job.getJobId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"client\":\"Mock Client\"}"));
+    }
+
+    @Test
+    void getReportJob_ShouldReturnNotFound_WhenJobIsUnknown() throws Exception {
+        when(reportJobService.getJob(any(UUID.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/reportes/jobs/{jobId}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportReport_ShouldStreamCsv() throws Exception {
+        // Arrange
+        StatementExportService.Statement statement = new StatementExportService.Statement(null, List.of(),
+                LocalDateTime.parse(validStartDate), LocalDateTime.parse(validEndDate));
+        when(statementExportService.open(eq(clientId), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(statement);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("accountNumber,amount\n478758,100.0\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(statementExportService).writeCsv(eq(statement), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/reportes/export")
+                        .param("fecha", validStartDate + "," + validEndDate)
+                        .param("client", clientId.toString())
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"statement-" + clientId + ".csv\""))
+                .andExpect(content().string("accountNumber,amount\n478758,100.0\n"));
+    }
+
+    @Test
+    void exportReport_ShouldReturnBadRequest_WhenFormatIsUnsupported() throws Exception {
+        mockMvc.perform(get("/reportes/export")
+                        .param("fecha", validStartDate + "," + validEndDate)
+                        .param("client", clientId.toString())
+                        .param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportReport_ShouldReturnNotFound_WhenClientIsUnknown() throws Exception {
+        when(statementExportService.open(eq(clientId), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new ResourceNotFoundException("Client not found with id: " + clientId));
+
+        mockMvc.perform(get("/reportes/export")
+                        .param("fecha", validStartDate + "," + validEndDate)
+                        .param("client", clientId.toString())
+                        .param("format", "pdf"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,121 @@
+package com.account;
+
+import com.account.dto.ReportJob;
+import com.account.service.ReportJobService;
+import com.account.service.ReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 11, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 11, 30, 0, 0);
+
+    @TempDir
+    Path spillDirectory;
+
+    private ReportService reportService;
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = mock(ReportService.class);
+        reportJobService = jobService(Runnable::run, 1024);
+    }
+
+    @Test
+    void submit_ShouldKeepSmallResultsInMemory() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        when(reportService.generateAccountStatement(clientId, START, END)).thenReturn(Map.of("client", "Mock Client"));
+
+        ReportJob job = reportJobService.submit(clientId, START, END);
+
+        assertEquals(ReportJob.Status.DONE, reportJobService.getJob(job.getJobId()).orElseThrow().getStatus());
+        assertFalse(job.isSpilled());
+        Resource result = reportJobService.getResult(job.getJobId()).orElseThrow();
+        assertEquals("{\"client\":\"Mock Client\"}", new String(result.getContentAsByteArray()));
+        assertEquals(job.getResultBytes(), result.contentLength());
+    }
+
+    @Test
+    void submit_ShouldSpillLargeResultsToDisk() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        Map<String, Object> statement = new HashMap<>();
+        statement.put("accounts", List.of("x".repeat(4096)));
+        when(reportService.generateAccountStatement(clientId, START, END)).thenReturn(statement);
+
+        ReportJob job = reportJobService.submit(clientId, START, END);
+
+        assertTrue(job.isSpilled());
+        assertTrue(Files.size(job.getResultFile()) > 4096);
+        assertEquals(Files.size(job.getResultFile()), job.getResultBytes());
+        Map<?, ?> read = new ObjectMapper().readValue(
+                reportJobService.getResult(job.getJobId()).orElseThrow().getInputStream(), Map.class);
+        assertEquals(statement, read);
+
+        // Discarding the job removes its spill file
+        reportJobService.discardJobs();
+        assertFalse(Files.exists(job.getResultFile()));
+    }
+
+    @Test
+    void submit_ShouldRecordFailure() {
+        UUID clientId = UUID.randomUUID();
+        when(reportService.generateAccountStatement(clientId, START, END))
+                .thenThrow(new IllegalArgumentException("Client not found"));
+
+        ReportJob job = reportJobService.submit(clientId, START, END);
+
+        assertEquals(ReportJob.Status.FAILED, job.getStatus());
+        assertEquals("Client not found", job.getError());
+        assertTrue(reportJobService.getResult(job.getJobId()).isEmpty());
+    }
+
+    @Test
+    void submit_ShouldNotRunOnCallerThread() {
+        Executor queued = mock(Executor.class);
+        reportJobService = jobService(queued, 1024);
+
+        ReportJob job = reportJobService.submit(UUID.randomUUID(), START, END);
+
+        assertEquals(ReportJob.Status.PENDING, job.getStatus());
+        verify(queued, times(1)).execute(any());
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    void submit_ShouldForgetJob_WhenQueueIsFull() {
+        Executor full = command -> {
+            throw new RejectedExecutionException("queue full");
+        };
+        reportJobService = jobService(full, 1024);
+
+        assertThrows(RejectedExecutionException.class, () -> reportJobService.submit(UUID.randomUUID(), START, END));
+    }
+
+    private ReportJobService jobService(Executor executor, int spillThreshold) {
+        ReportJobService service = new ReportJobService(spillDirectory, spillThreshold, Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "reportService", reportService);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "reportJobExecutor", executor);
+        return service;
+    }
+}
@@ -5,8 +5,10 @@ import com.account.entity.Account;
 import com.account.entity.Transaction;
 import com.account.repository.AccountRepository;
 import com.account.repository.TransactionRepository;
+import com.account.service.ReportCache;
 import com.account.service.ReportService;
 import com.account.service.ClientServiceCommunicator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -15,10 +17,16 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,9 +49,20 @@ class ReportServiceTest {
     @InjectMocks
     private ReportService reportService;
 
+    private ExecutorService reportExecutor;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        reportExecutor = Executors.newCachedThreadPool();
+        ReflectionTestUtils.setField(reportService, "reportExecutor", reportExecutor);
+        ReflectionTestUtils.setField(reportService, "reportCache",
+                new ReportCache(1_000_000, Duration.ofMinutes(5), Duration.ofHours(24)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportExecutor.shutdownNow();
     }
 
     @Test
@@ -127,11 +146,13 @@ class ReportServiceTest {
         account.setAccountId(UUID.randomUUID());
 
         Transaction transaction = new Transaction();
+        transaction.setAccountId(account.getAccountId());
         transaction.setAmount(100.0);
 
         when(clientServiceCommunicator.getClientDetails(clientId)).thenReturn(clientDTO);
         when(accountRepository.findByClientId(clientId)).thenReturn(Collections.singletonList(account));
-        when(transactionRepository.findByAccountIdAndTransactionDateBetween(account.getAccountId(), startDate, endDate))
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                List.of(account.getAccountId()), startDate, endDate))
                 .thenReturn(Collections.singletonList(transaction));
 
         // Act
@@ -167,7 +188,8 @@ class ReportServiceTest {
 
         when(clientServiceCommunicator.getClientDetails(clientId)).thenReturn(clientDTO);
         when(accountRepository.findByClientId(clientId)).thenReturn(Collections.singletonList(account));
-        when(transactionRepository.findByAccountIdAndTransactionDateBetween(account.getAccountId(), startDate, endDate))
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                List.of(account.getAccountId()), startDate, endDate))
                 .thenReturn(Collections.emptyList());
 
         // Act
@@ -187,5 +209,141 @@ class ReportServiceTest {
         List<Transaction> transactions = (List<Transaction>) accountData.get("transactions");
         assertTrue(transactions.isEmpty());
     }
-}
 
+    @Test
+    void generateAccountStatement_ShouldTakeBalancesFromWindowRows() {
+        // Arrange
+        UUID clientId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2024, 11, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 11, 30, 0, 0);
+        ClientDTO clientDTO = new ClientDTO();
+        clientDTO.setClientId(clientId);
+
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+
+        Transaction deposit = new Transaction();
+        deposit.setAccountId(account.getAccountId());
+        deposit.setAmount(100.0);
+        deposit.setCredit(true);
+        deposit.setAvailableBalance(600.0);
+        deposit.setTransactionDate(startDate.plusDays(1));
+
+        Transaction withdrawal = new Transaction();
+        withdrawal.setAccountId(account.getAccountId());
+        withdrawal.setAmount(40.0);
+        withdrawal.setCredit(false);
+        withdrawal.setAvailableBalance(560.0);
+        withdrawal.setTransactionDate(startDate.plusDays(2));
+
+        when(clientServiceCommunicator.getClientDetails(clientId)).thenReturn(clientDTO);
+        when(accountRepository.findByClientId(clientId)).thenReturn(Collections.singletonList(account));
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                List.of(account.getAccountId()), startDate, endDate))
+                .thenReturn(Arrays.asList(withdrawal, deposit));
+
+        // Act
+        Map<String, Object> result = reportService.generateAccountStatement(clientId, startDate, endDate);
+
+        // Assert
+        Map<String, Object> accountData = ((List<Map<String, Object>>) result.get("accounts")).get(0);
+        assertEquals(500.0, accountData.get("openingBalance"));
+        assertEquals(560.0, accountData.get("closingBalance"));
+    }
+
+    @Test
+    void generateAccountStatement_ShouldUseTwoQueriesAndOverlapClientLookup() {
+        // Arrange
+        UUID clientId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2024, 11, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 11, 30, 0, 0);
+        ClientDTO clientDTO = new ClientDTO();
+        clientDTO.setClientId(clientId);
+
+        List<Account> accounts = new ArrayList<>();
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Account account = new Account();
+            account.setAccountId(UUID.randomUUID());
+            accounts.add(account);
+            for (int j = 0; j < 3; j++) {
+                Transaction transaction = new Transaction();
+                transaction.setAccountId(account.getAccountId());
+                transaction.setAmount(10.0);
+                rows.add(transaction);
+            }
+        }
+
+        // The account query waits for the client lookup to start, and the lookup only answers
+        // once the account query has run, so both are in flight together. A sequential
+        // implementation times out on one of the latches instead of overlapping
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch accountsQueried = new CountDownLatch(1);
+        when(clientServiceCommunicator.getClientDetails(clientId)).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            assertTrue(accountsQueried.await(2, TimeUnit.SECONDS), "client lookup did not overlap the queries");
+            return clientDTO;
+        });
+        when(accountRepository.findByClientId(clientId)).thenAnswer(invocation -> {
+            assertTrue(lookupStarted.await(2, TimeUnit.SECONDS), "queries did not overlap the client lookup");
+            accountsQueried.countDown();
+            return accounts;
+        });
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                anyCollection(), eq(startDate), eq(endDate))).thenReturn(rows);
+
+        // Act
+        Map<String, Object> result = reportService.generateAccountStatement(clientId, startDate, endDate);
+
+        // Assert: one account query and one transaction query, whatever the account count
+        verify(accountRepository, times(1)).findByClientId(clientId);
+        verify(transactionRepository, times(1)).findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                anyCollection(), eq(startDate), eq(endDate));
+        verify(transactionRepository, never()).findByAccountIdAndTransactionDateBetween(any(), any(), any());
+
+        List<Map<String, Object>> accountsData = (List<Map<String, Object>>) result.get("accounts");
+        assertEquals(20, accountsData.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            assertEquals(accounts.get(i), accountsData.get(i).get("accountDetails"));
+            assertEquals(3, ((List<Transaction>) accountsData.get(i).get("transactions")).size());
+        }
+    }
+
+    @Test
+    void generateAccountStatement_ShouldServeRepeatedRequestsFromCache() {
+        // Arrange
+        UUID clientId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2024, 11, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 11, 30, 0, 0);
+        ClientDTO clientDTO = new ClientDTO();
+        clientDTO.setClientId(clientId);
+
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setBalance(100.0);
+        // The same account after a posting outside the window
+        Account later = new Account();
+        later.setAccountId(account.getAccountId());
+        later.setBalance(250.0);
+
+        when(clientServiceCommunicator.getClientDetails(clientId)).thenReturn(clientDTO);
+        when(accountRepository.findByClientId(clientId))
+                .thenReturn(Collections.singletonList(account), Collections.singletonList(later));
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                anyCollection(), eq(startDate), eq(endDate))).thenReturn(Collections.emptyList());
+
+        // Act
+        Map<String, Object> first = reportService.generateAccountStatement(clientId, startDate, endDate);
+        Map<String, Object> second = reportService.generateAccountStatement(clientId, startDate, endDate);
+
+        // Assert: the window is built once, the account details are current on every call
+        assertNotSame(first, second);
+        assertEquals(first.get("client"), second.get("client"));
+        assertSame(account, ((List<Map<String, Object>>) first.get("accounts")).get(0).get("accountDetails"));
+        assertSame(later, ((List<Map<String, Object>>) second.get("accounts")).get(0).get("accountDetails"));
+        verify(accountRepository, times(2)).findByClientId(clientId);
+        verify(transactionRepository, times(1)).findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                anyCollection(), eq(startDate), eq(endDate));
+        verify(clientServiceCommunicator, times(1)).getClientDetails(clientId);
+    }
+}
@@ -0,0 +1,190 @@
+package com.account;
+
+import com.account.dto.ClientDTO;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import com.account.service.ClientServiceCommunicator;
+import com.account.service.StatementExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatementExportServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 11, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 11, 30, 0, 0);
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ClientServiceCommunicator clientServiceCommunicator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private StatementExportService statementExportService;
+
+    private UUID clientId;
+    private Account savings;
+    private Account checking;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clientId = UUID.randomUUID();
+        ClientDTO client = new ClientDTO();
+        client.setClientId(clientId);
+        client.setName("Jose Lema");
+        savings = account(478758L, "Ahorros");
+        checking = account(225487L, "Corriente, VIP");
+        when(clientServiceCommunicator.getClientDetails(clientId)).thenReturn(client);
+        when(accountRepository.findByClientId(clientId)).thenReturn(List.of(savings, checking));
+    }
+
+    @Test
+    void open_ShouldFail_WhenClientHasNoAccounts() {
+        when(accountRepository.findByClientId(clientId)).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> statementExportService.open(clientId, START, END));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void writeCsv_ShouldWriteOneLinePerMovement() throws Exception {
+        when(transactionRepository.streamStatement(anyCollection(), eq(START), eq(END)))
+                .thenReturn(Stream.of(transaction(savings, 100.0, true, 600.0), transaction(checking, 40.0, false, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = statementExportService.writeCsv(statementExportService.open(clientId, START, END), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].startsWith("478758,Ahorros,"));
+        assertTrue(lines[1].endsWith(",CREDIT,100.0,600.0"));
+        assertTrue(lines[2].startsWith("225487,\"Corriente, VIP\","));
+        assertTrue(lines[2].endsWith(",DEBIT,40.0,"));
+    }
+
+    @Test
+    void writeCsv_ShouldFlushHeaderBeforeReadingRowsAndStreamInChunks() throws Exception {
+        int rows = 200_000;
+        AtomicInteger read = new AtomicInteger();
+        FlushRecordingStream out = new FlushRecordingStream();
+        when(transactionRepository.streamStatement(anyCollection(), eq(START), eq(END)))
+                .thenReturn(Stream.generate(() -> {
+                    // The caller already has the header before the first row is fetched
+                    if (read.getAndIncrement() == 0) {
+                        assertTrue(out.flushedBytes > 0);
+                    }
+                    return transaction(savings, 1.0, true, 1.0);
+                }).limit(rows));
+
+        long written = statementExportService.writeCsv(statementExportService.open(clientId, START, END), out);
+
+        assertEquals(rows, written);
+        assertTrue(out.flushes >= rows / 500, "flushed " + out.flushes + " times");
+        verify(entityManager, atLeast(rows / 500)).clear();
+    }
+
+    @Test
+    void writePdf_ShouldWriteValidPdfWithCorrectCrossReferences() throws Exception {
+        int rows = 500;
+        when(transactionRepository.streamStatement(anyCollection(), eq(START), eq(END)))
+                .thenReturn(Stream.generate(() -> transaction(savings, 10.0, true, 10.0)).limit(rows));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = statementExportService.writePdf(statementExportService.open(clientId, START, END), out);
+
+        assertEquals(rows, written);
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("(Cliente: Jose Lema  Identificacion: ) Tj"));
+
+        // Every xref entry must point at the start of its object
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(pdf);
+        assertTrue(startxref.find());
+        int xref = Integer.parseInt(startxref.group(1));
+        assertTrue(pdf.startsWith("xref\n", xref));
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(pdf.substring(xref));
+        int object = 1;
+        while (entries.find()) {
+            assertTrue(pdf.startsWith(object + " 0 obj\n", Integer.parseInt(entries.group(1))), "object " + object);
+            object++;
+        }
+        // Header lines plus one line per row and the account section, 60 lines per page
+        Matcher count = Pattern.compile("/Type /Pages /Count (\\d+)").matcher(pdf);
+        assertTrue(count.find());
+        assertEquals((rows + 5 + 3 + 59) / 60, Integer.parseInt(count.group(1)));
+    }
+
+    private static Account account(long number, String type) {
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setAccountNumber(number);
+        account.setAccountType(type);
+        account.setBalance(0.0);
+        return account;
+    }
+
+    private static Transaction transaction(Account account, double amount, boolean credit, Double balance) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setAccountId(account.getAccountId());
+        transaction.setAmount(amount);
+        transaction.setCredit(credit);
+        transaction.setAvailableBalance(balance);
+        transaction.setTransactionDate(START.plusDays(1));
+        return transaction;
+    }
+
+    // Discards the bytes, keeping only what is needed to observe flushing
+    private static final class FlushRecordingStream extends OutputStream {
+        private long bytes;
+        private long flushedBytes;
+        private int flushes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            flushedBytes = bytes;
+            flushes++;
+        }
+    }
+}
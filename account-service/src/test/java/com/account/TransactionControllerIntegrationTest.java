@@ -1,17 +1,26 @@
 package com.account;
 
+import com.account.config.AccountServiceSecurityConfig;
 import com.account.controller.TransactionController;
+import com.account.dto.IngestResult;
 import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
 import com.account.service.TransactionService;
+import com.finances.common.dto.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -23,8 +32,10 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doAnswer;
 
 @WebMvcTest(TransactionController.class)
+@Import(AccountServiceSecurityConfig.class)
 class TransactionControllerIntegrationTest {
 
     @Autowired
@@ -59,16 +70,90 @@ class TransactionControllerIntegrationTest {
     }
 
     @Test
-    void getAllTransactions_ShouldReturnAllTransactions() throws Exception {
-        List<Transaction> transactions = Arrays.asList(transaction);
-        when(transactionService.getAllTransactions()).thenReturn(transactions);
+    void ingestTransactions_ShouldReportThroughput() throws Exception {
+        when(transactionService.isHistoricalImportEnabled()).thenReturn(true);
+        when(transactionService.ingestTransactions(any())).thenReturn(new IngestResult(2, 4, 500.0));
+
+        mockMvc.perform(post("/movimientos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"amount\":100.0,\"credit\":true},{\"amount\":20.0,\"credit\":false}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.rowsPerSecond").value(500.0));
+    }
+
+    @Test
+    void ingestTransactions_ShouldBeForbidden_WhenHistoricalImportIsDisabled() throws Exception {
+        mockMvc.perform(post("/movimientos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"amount\":100.0,\"credit\":true}]"))
+                .andExpect(status().isForbidden());
+        Mockito.verify(transactionService, Mockito.never()).ingestTransactions(any());
+    }
+
+    @Test
+    void getAllTransactions_ShouldReturnFirstPage() throws Exception {
+        KeysetPage<Transaction> page = new KeysetPage<>(Arrays.asList(transaction), "next");
+        when(transactionService.getTransactionsPage(null, KeysetPage.DEFAULT_LIMIT)).thenReturn(page);
 
         mockMvc.perform(get("/movimientos")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].transactionId").value(transactionId.toString()))
-                .andExpect(jsonPath("$[0].amount").value(100.0))
-                .andExpect(jsonPath("$[0].credit").value(true));
+                .andExpect(jsonPath("$.items[0].transactionId").value(transactionId.toString()))
+                .andExpect(jsonPath("$.items[0].amount").value(100.0))
+                .andExpect(jsonPath("$.items[0].credit").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getAllTransactions_ShouldResumeAfterCursorAndCapLimit() throws Exception {
+        KeysetPage<Transaction> page = new KeysetPage<>(Arrays.asList(transaction), null);
+        when(transactionService.getTransactionsPage(transactionId, KeysetPage.MAX_LIMIT)).thenReturn(page);
+
+        mockMvc.perform(get("/movimientos")
+                        .param("after", KeysetPage.encodeCursor(transactionId))
+                        .param("limit", "100000")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].transactionId").value(transactionId.toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getAllTransactions_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/movimientos")
+                        .param("after", "not-a-cursor")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportTransactions_ShouldStreamNdjson() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(4);
+            out.write("{\"amount\":100.0}\n{\"amount\":50.0}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(transactionService).exportTransactions(eq(null), eq(clientId),
+                eq(LocalDateTime.parse("2024-11-01T00:00:00")), eq(LocalDateTime.parse("2024-11-09T23:59:59")), any());
+
+        MvcResult result = mockMvc.perform(get("/movimientos/export")
+                        .param("client", clientId.toString())
+                        .param("fecha", "2024-11-01T00:00:00,2024-11-09T23:59:59"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"amount\":100.0}\n{\"amount\":50.0}\n"));
+    }
+
+    @Test
+    void exportTransactions_ShouldReturnBadRequest_WhenDateFormatIsInvalid() throws Exception {
+        mockMvc.perform(get("/movimientos/export")
+                        .param("fecha", "yesterday"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -107,7 +192,7 @@ class TransactionControllerIntegrationTest {
     @Test
     void updateTransaction_ShouldReturnNotFound_WhenTransactionDoesNotExist() throws Exception {
         when(transactionService.updateTransaction(eq(transactionId), any(Transaction.class)))
-                .thenThrow(new RuntimeException("Transaction not found"));
+                .thenThrow(new ResourceNotFoundException("Transaction not found"));
 
         mockMvc.perform(patch("/movimientos/{transactionId}", transactionId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -115,15 +200,36 @@ class TransactionControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateTransaction_ShouldReturnBadRequest_WhenChangingAPostedTransaction() throws Exception {
+        when(transactionService.updateTransaction(eq(transactionId), any(Transaction.class)))
+                .thenThrow(new IllegalArgumentException("Posted transactions cannot be changed"));
+
+        mockMvc.perform(patch("/movimientos/{transactionId}", transactionId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":150.0}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteTransaction_ShouldReturnNoContent() throws Exception {
-        doNothing().when(transactionService).deleteTransaction(transactionId);
+        when(transactionService.deleteTransaction(transactionId)).thenReturn(new Transaction());
 
         mockMvc.perform(delete("/movimientos/{transactionId}", transactionId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void deleteTransaction_ShouldReturnBadRequest_WhenAlreadyReversed() throws Exception {
+        when(transactionService.deleteTransaction(transactionId))
+                .thenThrow(new IllegalArgumentException("Transaction has already been reversed"));
+
+        mockMvc.perform(delete("/movimientos/{transactionId}", transactionId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteAllTransactions_ShouldReturnNoContent() throws Exception {
         doNothing().when(transactionService).deleteAllTransactions();
@@ -0,0 +1,91 @@
+package com.account;
+
+import com.account.dto.IngestResult;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import com.account.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the per-row saveAll path with the batched bulk-ingest path against a
+ * real MySQL. Opt-in, because it needs a database and takes a while:
+ *
+ * mvn test -Dtest=TransactionIngestBenchmarkTest -Dbenchmark=true
+ *     -Dspring.datasource.url=jdbc:mysql://localhost:3306/microservices_db
+ */
+@SpringBootTest(properties = "transaction.ingest.historical-import=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionIngestBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void bulkIngest_ShouldOutperformSaveAll() {
+        List<Transaction> warmup = sampleTransactions(1_000);
+        transactionRepository.saveAll(warmup);
+        transactionService.ingestTransactions(sampleTransactions(1_000));
+
+        long start = System.nanoTime();
+        transactionRepository.saveAll(sampleTransactions(ROWS));
+        IngestResult saveAll = IngestResult.of(ROWS, System.nanoTime() - start);
+
+        IngestResult bulk = transactionService.ingestTransactions(sampleTransactions(ROWS));
+
+        System.out.printf("saveAll: %d rows in %d ms (%.0f rows/s)%n",
+                saveAll.getRows(), saveAll.getElapsedMillis(), saveAll.getRowsPerSecond());
+        System.out.printf("bulk:    %d rows in %d ms (%.0f rows/s), speedup %.1fx%n",
+                bulk.getRows(), bulk.getElapsedMillis(), bulk.getRowsPerSecond(),
+                bulk.getRowsPerSecond() / saveAll.getRowsPerSecond());
+        assertEquals(ROWS, bulk.getRows());
+    }
+
+    // Imported rows are folded into their account's balance, so the account has to exist
+    private List<Transaction> sampleTransactions(int count) {
+        Account account = new Account();
+        account.setClientId(UUID.randomUUID());
+        account.setBalance(0.0);
+        account = accountRepository.save(account);
+        UUID clientId = account.getClientId();
+        UUID accountId = account.getAccountId();
+        LocalDateTime now = LocalDateTime.now().minusSeconds(1);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setClientId(clientId);
+            transaction.setAccountId(accountId);
+            transaction.setAmount(i % 500);
+            transaction.setCredit(i % 2 == 0);
+            transaction.setTransactionDate(now.minusSeconds(i));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,192 @@
+package com.account;
+
+import com.account.config.AccountCodecs;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
+import com.account.listener.TransactionMessageListener;
+import com.account.service.MessageDeduplicator;
+import com.account.service.PostingEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finances.common.config.BinaryMessageConverter;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TransactionMessageListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final BinaryMessageConverter binaryConverter = new BinaryMessageConverter(new Jackson2JsonMessageConverter(),
+            true, Integer.MAX_VALUE, AccountCodecs.CLIENT, AccountCodecs.ACCOUNT, AccountCodecs.TRANSACTION);
+    private PostingEngine postingEngine;
+    private MessageDeduplicator messageDeduplicator;
+    private Channel channel;
+    private TransactionMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        postingEngine = mock(PostingEngine.class);
+        messageDeduplicator = mock(MessageDeduplicator.class);
+        channel = mock(Channel.class);
+        listener = new TransactionMessageListener();
+        ReflectionTestUtils.setField(listener, "postingEngine", postingEngine);
+        ReflectionTestUtils.setField(listener, "messageDeduplicator", messageDeduplicator);
+        ReflectionTestUtils.setField(listener, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(listener, "messageConverter", binaryConverter);
+        ReflectionTestUtils.setField(listener, "maxDeliveries", 3);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldPostWholeBatchAndAckOnceAfterCommit() throws Exception {
+        when(postingEngine.post(any(), any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+
+        listener.handleTransactionCreation(List.of(message(1, transaction()), message(2, transaction()), message(3, transaction())), channel);
+
+        verify(postingEngine, times(3)).post(any(), any());
+        verify(channel).basicAck(3, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldAckDuplicatesWithoutPostingThem() throws Exception {
+        when(messageDeduplicator.findDuplicates(any())).thenReturn(Set.of("message-1"));
+        when(postingEngine.post(any(), any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+        Transaction repeated = transaction();
+        Message redelivered = message(3, repeated);
+        redelivered.getMessageProperties().setMessageId("message-2");
+
+        listener.handleTransactionCreation(List.of(message(1, transaction()), message(2, repeated), redelivered), channel);
+
+        verify(postingEngine, times(1)).post(any(), eq("message-2"));
+        verify(postingEngine, never()).post(any(), eq("message-1"));
+        verify(channel).basicAck(3, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldReject_WhenMessageIdIsMissing() throws Exception {
+        Message anonymous = message(4, transaction());
+        anonymous.getMessageProperties().setMessageId(null);
+
+        listener.handleTransactionCreation(List.of(anonymous), channel);
+
+        verify(postingEngine, never()).post(any(), any());
+        verify(channel).basicReject(4, false);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldNotAck_UntilPostingCommits() throws Exception {
+        CompletableFuture<Transaction> pending = new CompletableFuture<>();
+        when(postingEngine.post(any(), any())).thenReturn(pending);
+        Thread consumer = new Thread(() -> {
+            try {
+                listener.handleTransactionCreation(List.of(message(1, transaction())), channel);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        consumer.start();
+
+        Thread.sleep(100);
+        verifyNoInteractions(channel);
+        pending.complete(transaction());
+        consumer.join(5000);
+
+        verify(channel).basicAck(1, true);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldRejectPoisonMessagesAndAckTheRest() throws Exception {
+        Transaction good = transaction();
+        Transaction unknownAccount = transaction();
+        when(postingEngine.post(argThat(t -> t != null && good.getAccountId().equals(t.getAccountId())), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+        when(postingEngine.post(argThat(t -> t != null && unknownAccount.getAccountId().equals(t.getAccountId())), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ResourceNotFoundException("Account not found")));
+        Message unreadable = new Message("not json".getBytes(StandardCharsets.UTF_8), properties(3));
+
+        listener.handleTransactionCreation(List.of(message(1, good), message(2, unknownAccount), unreadable), channel);
+
+        verify(channel).basicAck(1, false);
+        verify(channel).basicReject(2, false);
+        verify(channel).basicReject(3, false);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldPostBinaryTransactions_AndRejectOtherBinaryTypes() throws Exception {
+        when(postingEngine.post(any(), any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+        Transaction transaction = transaction();
+        Message binary = binaryConverter.toMessage(transaction, properties(1));
+        Message account = binaryConverter.toMessage(new Account(), properties(2));
+
+        listener.handleTransactionCreation(List.of(binary, message(3, transaction())), channel);
+        listener.handleTransactionCreation(List.of(account), channel);
+
+        verify(postingEngine).post(argThat(t -> t != null && transaction.getAccountId().equals(t.getAccountId())
+                && transaction.getAmount() == t.getAmount()), eq("message-1"));
+        verify(channel).basicAck(3, true);
+        verify(channel).basicReject(2, false);
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldRequeue_WhenCommitFails() throws Exception {
+        when(postingEngine.post(any(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+
+        listener.handleTransactionCreation(List.of(message(7, transaction())), channel);
+
+        verify(channel).basicNack(7, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void handleTransactionCreation_ShouldDeadLetter_WhenCommitKeepsFailing() throws Exception {
+        when(postingEngine.post(any(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+        Message secondAttempt = message(7, transaction());
+        secondAttempt.getMessageProperties().setHeader("x-delivery-count", 1L);
+        Message lastAttempt = message(8, transaction());
+        lastAttempt.getMessageProperties().setHeader("x-delivery-count", 2L);
+
+        listener.handleTransactionCreation(List.of(secondAttempt, lastAttempt), channel);
+
+        verify(channel).basicNack(7, false, true);
+        verify(channel).basicReject(8, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(UUID.randomUUID());
+        transaction.setAmount(10.0);
+        transaction.setCredit(true);
+        return transaction;
+    }
+
+    private Message message(long deliveryTag, Transaction transaction) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(transaction), properties(deliveryTag));
+    }
+
+    private static MessageProperties properties(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setMessageId("message-" + deliveryTag);
+        return properties;
+    }
+}
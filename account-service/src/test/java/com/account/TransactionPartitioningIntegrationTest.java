@@ -0,0 +1,121 @@
+package com.account;
+
+import com.account.service.TransactionPartitionMaintenance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs partition maintenance against a real MySQL and checks with EXPLAIN that
+ * date-window queries are pruned to the overlapping partitions. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionPartitioningIntegrationTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2024, 11);
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword()));
+        jdbcTemplate.queryForList("SHOW TABLES LIKE 'transaction%'", String.class)
+                .forEach(table -> jdbcTemplate.execute("DROP TABLE " + table));
+        // Same shape as the table Hibernate generates for Transaction
+        jdbcTemplate.execute("CREATE TABLE transaction ("
+                + "transaction_id BINARY(16) NOT NULL, account_id BINARY(16) NOT NULL, client_id BINARY(16) NOT NULL, "
+                + "amount DOUBLE NOT NULL, credit BIT NOT NULL, transaction_date DATETIME(6) NOT NULL, "
+                + "available_balance DOUBLE, PRIMARY KEY (transaction_id), "
+                + "INDEX idx_transaction_account_date (account_id, transaction_date))");
+        for (int monthsAgo = 0; monthsAgo < 6; monthsAgo++) {
+            insert(CURRENT.minusMonths(monthsAgo).atDay(15).atStartOfDay());
+        }
+    }
+
+    @Test
+    void maintain_ShouldCreateMonthlyPartitionsAhead() {
+        TransactionPartitionMaintenance maintenance = new TransactionPartitionMaintenance(jdbcTemplate, 3, 0);
+
+        maintenance.maintain(CURRENT);
+
+        List<String> partitions = maintenance.partitions();
+        assertEquals("p202406", partitions.get(0));
+        assertEquals("p202502", partitions.get(partitions.size() - 2));
+        assertEquals("pmax", partitions.get(partitions.size() - 1));
+        assertEquals(6, count("transaction"));
+
+        // A later run only extends the future range
+        maintenance.maintain(CURRENT.plusMonths(1));
+        assertTrue(maintenance.partitions().contains("p202503"));
+    }
+
+    @Test
+    void dateWindowQueries_ShouldOnlyReadOverlappingPartitions() {
+        new TransactionPartitionMaintenance(jdbcTemplate, 3, 0).maintain(CURRENT);
+
+        Map<String, Object> plan = jdbcTemplate.queryForMap("EXPLAIN SELECT * FROM transaction "
+                + "WHERE account_id = UNHEX('00112233445566778899AABBCCDDEEFF') "
+                + "AND transaction_date BETWEEN '2024-09-01 00:00:00' AND '2024-10-31 23:59:59'");
+
+        assertEquals("p202409,p202410", plan.get("partitions"));
+    }
+
+    @Test
+    void maintain_ShouldDetachExpiredMonthsIntoArchiveTables() {
+        TransactionPartitionMaintenance maintenance = new TransactionPartitionMaintenance(jdbcTemplate, 3, 3);
+
+        maintenance.maintain(CURRENT);
+
+        // Months before August 2024 are past the 3-month retention
+        assertFalse(maintenance.partitions().contains("p202407"));
+        assertTrue(maintenance.partitions().contains("p202408"));
+        assertEquals(1, count("transaction_archive_202406"));
+        assertEquals(1, count("transaction_archive_202407"));
+        assertEquals(4, count("transaction"));
+    }
+
+    @Test
+    void maintain_ShouldResumeArchivingAfterAnInterruptedRun() {
+        TransactionPartitionMaintenance maintenance = new TransactionPartitionMaintenance(jdbcTemplate, 3, 0);
+        maintenance.maintain(CURRENT);
+        // One run stopped after creating its archive table, another after the exchange
+        jdbcTemplate.execute("CREATE TABLE transaction_archive_202406 LIKE transaction");
+        jdbcTemplate.execute("CREATE TABLE transaction_archive_202407 LIKE transaction");
+        jdbcTemplate.execute("ALTER TABLE transaction_archive_202407 REMOVE PARTITIONING");
+        jdbcTemplate.execute("ALTER TABLE transaction EXCHANGE PARTITION p202407 WITH TABLE transaction_archive_202407");
+
+        new TransactionPartitionMaintenance(jdbcTemplate, 3, 3).maintain(CURRENT);
+
+        assertFalse(maintenance.partitions().contains("p202406"));
+        assertFalse(maintenance.partitions().contains("p202407"));
+        assertEquals(1, count("transaction_archive_202406"));
+        assertEquals(1, count("transaction_archive_202407"));
+        assertEquals(4, count("transaction"));
+    }
+
+    private void insert(LocalDateTime date) {
+        jdbcTemplate.update("INSERT INTO transaction VALUES (UNHEX(REPLACE(?, '-', '')), UNHEX(REPLACE(?, '-', '')), "
+                        + "UNHEX(REPLACE(?, '-', '')), 10, 1, ?, NULL)",
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString(), date);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -1,19 +1,37 @@
 package com.account;
 
+import com.account.dto.IngestResult;
+import com.account.entity.Account;
 import com.account.entity.Transaction;
+import com.account.exception.ResourceNotFoundException;
 import com.account.repository.TransactionRepository;
+import com.account.service.PostingEngine;
+import com.account.service.ReportCache;
 import com.account.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finances.common.dto.KeysetPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +42,21 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private PostingEngine postingEngine;
+
+    @Mock
+    private ReportCache reportCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -47,25 +80,93 @@ class TransactionServiceTest {
     }
 
     @Test
-    void createTransaction_ShouldSaveAndReturnTransaction() {
+    void createTransaction_ShouldPostThroughEngine() {
         Transaction transaction = new Transaction();
-        when(transactionRepository.save(transaction)).thenReturn(transaction);
+        when(postingEngine.postAll(List.of(transaction))).thenReturn(List.of(transaction));
 
         Transaction result = transactionService.createTransaction(transaction);
 
         assertEquals(transaction, result);
-        verify(transactionRepository, times(1)).save(transaction);
+        verify(postingEngine, times(1)).postAll(List.of(transaction));
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
-    void createTransactions_ShouldSaveAndReturnTransactions() {
+    void createTransactions_ShouldPostThroughEngine() {
         List<Transaction> transactions = Arrays.asList(new Transaction(), new Transaction());
-        when(transactionRepository.saveAll(transactions)).thenReturn(transactions);
+        when(postingEngine.postAll(transactions)).thenReturn(transactions);
 
         List<Transaction> result = transactionService.createTransactions(transactions);
 
         assertEquals(transactions, result);
-        verify(transactionRepository, times(1)).saveAll(transactions);
+        verify(postingEngine, times(1)).postAll(transactions);
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void ingestTransactions_ShouldInsertThroughBatchedStatelessSessionInOneTransaction() {
+        ReflectionTestUtils.setField(transactionService, "historicalImport", true);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        StatelessSession session = mock(StatelessSession.class);
+        org.hibernate.Transaction tx = mock(org.hibernate.Transaction.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccountId = UUID.randomUUID();
+        when(postingEngine.rebuildBalances(any())).thenReturn(CompletableFuture.completedFuture(new Account()));
+        List<Transaction> transactions = Arrays.asList(
+                imported(accountId), imported(accountId), imported(otherAccountId));
+
+        IngestResult result = transactionService.ingestTransactions(transactions);
+
+        assertEquals(3, result.getRows());
+        assertTrue(result.getRowsPerSecond() > 0);
+        verify(session).setJdbcBatchSize(1000);
+        verify(session, times(3)).insert(any(Transaction.class));
+        verify(tx).commit();
+        verify(session).close();
+        verify(transactionRepository, never()).saveAll(any());
+        verify(postingEngine).rebuildBalances(accountId);
+        verify(postingEngine).rebuildBalances(otherAccountId);
+    }
+
+    @Test
+    void ingestTransactions_ShouldRollBack_WhenInsertFails() {
+        ReflectionTestUtils.setField(transactionService, "historicalImport", true);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        StatelessSession session = mock(StatelessSession.class);
+        org.hibernate.Transaction tx = mock(org.hibernate.Transaction.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(tx);
+        when(session.insert(any(Transaction.class))).thenThrow(new IllegalStateException("constraint violation"));
+
+        assertThrows(IllegalStateException.class,
+                () -> transactionService.ingestTransactions(List.of(imported(UUID.randomUUID()))));
+        verify(tx).rollback();
+        verify(tx, never()).commit();
+        verify(postingEngine, never()).rebuildBalances(any());
+    }
+
+    @Test
+    void ingestTransactions_ShouldRefuse_WhenHistoricalImportIsDisabled() {
+        assertThrows(IllegalStateException.class,
+                () -> transactionService.ingestTransactions(List.of(imported(UUID.randomUUID()))));
+        verify(entityManagerFactory, never()).unwrap(any());
+    }
+
+    @Test
+    void ingestTransactions_ShouldRejectRowsWithoutAPastDate() {
+        ReflectionTestUtils.setField(transactionService, "historicalImport", true);
+        Transaction undated = imported(UUID.randomUUID());
+        undated.setTransactionDate(null);
+        Transaction future = imported(UUID.randomUUID());
+        future.setTransactionDate(LocalDateTime.now().plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.ingestTransactions(List.of(undated)));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.ingestTransactions(List.of(future)));
+        verify(entityManagerFactory, never()).unwrap(any());
     }
 
     @Test
@@ -79,6 +180,60 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).findAll();
     }
 
+    @Test
+    void getTransactionsPage_ShouldReturnCursor_WhenMoreRowsExist() {
+        Transaction first = new Transaction();
+        first.setTransactionId(UUID.randomUUID());
+        Transaction second = new Transaction();
+        second.setTransactionId(UUID.randomUUID());
+        Transaction extra = new Transaction();
+        extra.setTransactionId(UUID.randomUUID());
+        when(transactionRepository.findAllByOrderByTransactionIdAsc(Limit.of(3)))
+                .thenReturn(Arrays.asList(first, second, extra));
+
+        KeysetPage<Transaction> page = transactionService.getTransactionsPage(null, 2);
+
+        assertEquals(Arrays.asList(first, second), page.getItems());
+        assertEquals(second.getTransactionId(), KeysetPage.decodeCursor(page.getNextCursor()));
+    }
+
+    @Test
+    void getTransactionsPage_ShouldReturnLastPage_WhenNoMoreRowsExist() {
+        UUID after = UUID.randomUUID();
+        List<Transaction> transactions = Arrays.asList(new Transaction());
+        when(transactionRepository.findByTransactionIdGreaterThanOrderByTransactionIdAsc(after, Limit.of(3)))
+                .thenReturn(transactions);
+
+        KeysetPage<Transaction> page = transactionService.getTransactionsPage(after, 2);
+
+        assertEquals(transactions, page.getItems());
+        assertNull(page.getNextCursor());
+        verify(transactionRepository, never()).findAll();
+    }
+
+    @Test
+    void exportTransactions_ShouldWriteOneJsonLinePerRowAndClearPeriodically() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        int rows = 1200;
+        when(transactionRepository.streamForExport(accountId, null, null, null))
+                .thenReturn(IntStream.range(0, rows).mapToObj(i -> {
+                    Transaction transaction = new Transaction();
+                    transaction.setAccountId(accountId);
+                    transaction.setAmount(i);
+                    return transaction;
+                }));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = transactionService.exportTransactions(accountId, null, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rows, written);
+        assertEquals(rows, lines.length);
+        assertEquals(1199.0, objectMapper.readValue(lines[rows - 1], Transaction.class).getAmount());
+        verify(entityManager, times(2)).clear();
+        verify(transactionRepository, never()).findAll();
+    }
+
     @Test
     void getTransactionById_ShouldReturnTransaction_WhenTransactionExists() {
         UUID transactionId = UUID.randomUUID();
@@ -104,24 +259,48 @@ class TransactionServiceTest {
     }
 
     @Test
-    void updateTransaction_ShouldUpdateAndReturnTransaction_WhenTransactionExists() {
+    void updateTransaction_ShouldReturnTransactionUnchanged_WhenNothingLedgerRelevantChanges() {
         UUID transactionId = UUID.randomUUID();
         Transaction existingTransaction = new Transaction();
+        existingTransaction.setAmount(500.0);
+        existingTransaction.setCredit(true);
+        existingTransaction.setTransactionDate(LocalDateTime.now());
         Transaction updatedTransaction = new Transaction();
         updatedTransaction.setAmount(500.0);
         updatedTransaction.setCredit(true);
-        updatedTransaction.setTransactionDate(LocalDateTime.now());
 
         when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(existingTransaction));
-        when(transactionRepository.save(existingTransaction)).thenReturn(existingTransaction);
 
         Transaction result = transactionService.updateTransaction(transactionId, updatedTransaction);
 
+        assertSame(existingTransaction, result);
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void updateTransaction_ShouldRejectAmountDirectionAndDateChanges() {
+        UUID transactionId = UUID.randomUUID();
+        Transaction existingTransaction = new Transaction();
+        existingTransaction.setAmount(500.0);
+        existingTransaction.setCredit(true);
+        existingTransaction.setTransactionDate(LocalDateTime.now());
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(existingTransaction));
+
+        Transaction amount = new Transaction();
+        amount.setAmount(400.0);
+        amount.setCredit(true);
+        Transaction direction = new Transaction();
+        direction.setAmount(500.0);
+        Transaction date = new Transaction();
+        date.setAmount(500.0);
+        date.setCredit(true);
+        date.setTransactionDate(existingTransaction.getTransactionDate().minusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.updateTransaction(transactionId, amount));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.updateTransaction(transactionId, direction));
+        assertThrows(IllegalArgumentException.class, () -> transactionService.updateTransaction(transactionId, date));
         assertEquals(500.0, existingTransaction.getAmount());
-        assertTrue(existingTransaction.isCredit());
-        assertEquals(updatedTransaction.getTransactionDate(), existingTransaction.getTransactionDate());
-        verify(transactionRepository, times(1)).findById(transactionId);
-        verify(transactionRepository, times(1)).save(existingTransaction);
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -130,17 +309,50 @@ class TransactionServiceTest {
         Transaction updatedTransaction = new Transaction();
         when(transactionRepository.findById(transactionId)).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> transactionService.updateTransaction(transactionId, updatedTransaction));
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.updateTransaction(transactionId, updatedTransaction));
         verify(transactionRepository, times(1)).findById(transactionId);
     }
 
     @Test
-    void deleteTransaction_ShouldDeleteTransaction_WhenTransactionExists() {
+    void deleteTransaction_ShouldPostAReversalThroughTheEngine() {
         UUID transactionId = UUID.randomUUID();
+        Transaction original = imported(UUID.randomUUID());
+        original.setTransactionId(transactionId);
+        original.setClientId(UUID.randomUUID());
+        original.setAmount(75.0);
+        original.setCredit(true);
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(original));
+        when(postingEngine.postAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Transaction reversal = transactionService.deleteTransaction(transactionId);
+
+        assertEquals(original.getAccountId(), reversal.getAccountId());
+        assertEquals(original.getClientId(), reversal.getClientId());
+        assertEquals(75.0, reversal.getAmount());
+        assertFalse(reversal.isCredit());
+        assertEquals(transactionId, reversal.getReversalOf());
+        assertNull(reversal.getTransactionDate());
+        verify(postingEngine).postAll(List.of(reversal));
+        verify(transactionRepository, never()).deleteById(any());
+    }
 
-        transactionService.deleteTransaction(transactionId);
+    @Test
+    void deleteTransaction_ShouldRefuse_WhenAlreadyReversed() {
+        UUID transactionId = UUID.randomUUID();
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(imported(UUID.randomUUID())));
+        when(transactionRepository.existsByReversalOf(transactionId)).thenReturn(true);
 
-        verify(transactionRepository, times(1)).deleteById(transactionId);
+        assertThrows(IllegalArgumentException.class, () -> transactionService.deleteTransaction(transactionId));
+        verify(postingEngine, never()).postAll(any());
+    }
+
+    @Test
+    void deleteTransaction_ShouldThrow_WhenTransactionDoesNotExist() {
+        UUID transactionId = UUID.randomUUID();
+        when(transactionRepository.findById(transactionId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> transactionService.deleteTransaction(transactionId));
+        verify(postingEngine, never()).postAll(any());
     }
 
     @Test
@@ -149,5 +361,12 @@ class TransactionServiceTest {
 
         verify(transactionRepository, times(1)).deleteAll();
     }
+
+    private static Transaction imported(UUID accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setTransactionDate(LocalDateTime.now().minusDays(1));
+        return transaction;
+    }
 }
 
@@ -0,0 +1,175 @@
+package com.account;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares Tomcat on platform threads with the virtual-thread mode when every request
+ * blocks on a slow downstream call, as report requests do on client-service. Each mode
+ * boots a minimal web context (no database or broker) and takes the same burst of
+ * concurrent requests. Opt-in:
+ *
+ * mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true
+ *     [-Dloadtest.requests=4000] [-Dloadtest.concurrency=1000] [-Dloadtest.downstream-ms=100]
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 4000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 1000);
+    private static final int DOWNSTREAM_MS = Integer.getInteger("loadtest.downstream-ms", 100);
+
+    private HttpServer downstream;
+
+    @BeforeEach
+    void startDownstream() throws Exception {
+        downstream = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        downstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        downstream.createContext("/clientes", exchange -> {
+            try {
+                Thread.sleep(DOWNSTREAM_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"name\":\"Jose Lema\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        downstream.start();
+    }
+
+    @AfterEach
+    void stopDownstream() {
+        downstream.stop(0);
+    }
+
+    @Test
+    void virtualThreads_ShouldOutperformPlatformThreads_WhenRequestsBlockOnDownstream() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%d requests, %d concurrent, downstream %d ms%n", REQUESTS, CONCURRENCY, DOWNSTREAM_MS);
+        System.out.println("platform threads: " + platform);
+        System.out.println("virtual threads:  " + virtual);
+        assertEquals(0, platform.failures + virtual.failures);
+        assertTrue(virtual.requestsPerSecond > platform.requestsPerSecond);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        // Command-line arguments, so they win over application.properties (which logs at DEBUG)
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--downstream.url=http://localhost:" + downstream.getAddress().getPort() + "/clientes",
+                        "--logging.level.root=WARN", "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.com.account=WARN")) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/lookup");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).build();
+
+            // Warm up the JIT and the connection pools before measuring
+            fire(client, request, Math.min(REQUESTS, 500));
+            long start = System.nanoTime();
+            List<Long> latencies = fire(client, request, REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int failures = (int) latencies.stream().filter(latency -> latency < 0).count();
+            List<Long> ok = latencies.stream().filter(latency -> latency >= 0).sorted().toList();
+            return new Result(REQUESTS / seconds,
+                    ok.isEmpty() ? 0 : ok.get(ok.size() / 2) / 1_000_000,
+                    ok.isEmpty() ? 0 : ok.get((int) (ok.size() * 0.99)) / 1_000_000,
+                    failures);
+        }
+    }
+
+    // Sends count requests with at most CONCURRENCY in flight; a negative latency marks a failure
+    private static List<Long> fire(HttpClient client, HttpRequest request, int count) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(count));
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                inFlight.acquire();
+                futures.add(callers.submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        latencies.add(response.statusCode() == 200 ? System.nanoTime() - start : -1L);
+                    } catch (Exception e) {
+                        latencies.add(-1L);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return latencies;
+    }
+
+    private record Result(double requestsPerSecond, long p50Millis, long p99Millis, int failures) {
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %d ms, p99 %d ms, %d failures",
+                    requestsPerSecond, p50Millis, p99Millis, failures);
+        }
+    }
+
+    // Only Tomcat and MVC: the endpoint stands in for a report that waits on client-service.
+    // No stereotype annotations, so the application's component scan never picks this up.
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class, RabbitAutoConfiguration.class,
+            SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class
+    })
+    static class LoadTestApplication {
+
+        @Bean
+        RouterFunction<ServerResponse> lookup(@Value("${downstream.url}") String downstreamUrl) {
+            // HttpURLConnection keeps only 5 idle connections per host, which would cap both modes alike
+            RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+            return RouterFunctions.route()
+                    .GET("/lookup", request -> ServerResponse.ok().body(restTemplate.getForObject(downstreamUrl, String.class)))
+                    .build();
+        }
+    }
+}
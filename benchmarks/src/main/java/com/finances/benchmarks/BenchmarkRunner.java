@@ -0,0 +1,46 @@
+package com.finances.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Entry point of benchmarks.jar. Takes JMH's usual arguments (a benchmark regexp,
+ * {@code -f}, {@code -wi}, {@code -p size=1000}, ...) and, unless {@code -rf}/{@code -rff}
+ * say otherwise, writes the results as JSON to {@code results/jmh-<timestamp>.json} so
+ * runs can be compared with {@link CompareResults}.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        ResultFormatType format = commandLine.getResultFormat().orElse(ResultFormatType.JSON);
+        options.resultFormat(format);
+        // For other formats JMH's default file name (jmh-result.<format>) is kept
+        if (format == ResultFormatType.JSON && !commandLine.getResult().hasValue()) {
+            Path results = Path.of("results");
+            Files.createDirectories(results);
+            options.result(results.resolve("jmh-" + LocalDateTime.now().format(TIMESTAMP) + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
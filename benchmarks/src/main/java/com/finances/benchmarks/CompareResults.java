@@ -0,0 +1,81 @@
+package com.finances.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark:
+ *
+ * java -cp benchmarks.jar com.finances.benchmarks.CompareResults results/old.json results/new.json
+ *
+ * Benchmarks are matched by name, mode and parameters. For each one it prints both
+ * scores and the change, flagged when the difference is larger than the two runs'
+ * error margins added together; smaller changes are noise. Benchmarks only present in
+ * one of the files are listed as such.
+ */
+public final class CompareResults {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> candidate = read(Path.of(args[1]));
+
+        Set<String> keys = new TreeSet<>(baseline.keySet());
+        keys.addAll(candidate.keySet());
+        int width = keys.stream().mapToInt(String::length).max().orElse(9);
+
+        System.out.printf("%-" + width + "s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (String key : keys) {
+            Score before = baseline.get(key);
+            Score after = candidate.get(key);
+            if (before == null || after == null) {
+                System.out.printf("%-" + width + "s %s%n", key, before == null ? "only in candidate" : "only in baseline");
+                continue;
+            }
+            double change = (after.score - before.score) / before.score * 100;
+            boolean significant = Math.abs(after.score - before.score) > before.error + after.error;
+            System.out.printf("%-" + width + "s %14s %14s %+8.1f%%%s%n", key, before, after, change,
+                    significant ? (before.lowerIsBetter == (change < 0) ? "  better" : "  WORSE") : "");
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : MAPPER.readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replaceFirst("^com\\.finances\\.benchmarks\\.", ""));
+            key.append(" [").append(result.path("mode").asText()).append(']');
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble();
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText(),
+                    !result.path("mode").asText().equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private record Score(double score, double error, String unit, boolean lowerIsBetter) {
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", score, unit);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.finances.benchmarks;
+
+import com.account.dto.ClientDTO;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.client.entity.Client;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+// Entities shaped like the services' real data, shared by the benchmarks
+final class Fixtures {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private Fixtures() {
+    }
+
+    static Account account(int i, UUID clientId) {
+        Account account = new Account();
+        account.setAccountId(UUID.randomUUID());
+        account.setAccountNumber(478758L + i);
+        account.setAccountType(i % 2 == 0 ? "Ahorros" : "Corriente");
+        account.setBalance(2000.0 + i);
+        account.setStatus(true);
+        account.setClientId(clientId);
+        return account;
+    }
+
+    static Transaction transaction(int i, Account account) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setClientId(account.getClientId());
+        transaction.setAccountId(account.getAccountId());
+        transaction.setAmount(100.0 + i);
+        transaction.setCredit(i % 2 == 0);
+        transaction.setTransactionDate(START.plusMinutes(i).withNano(123_000_000));
+        transaction.setAvailableBalance(500.0 + i);
+        return transaction;
+    }
+
+    static Client client(int i) {
+        Client client = new Client();
+        client.setClientId(UUID.randomUUID());
+        client.setName("Jose Lema " + i);
+        client.setGender("M");
+        client.setAge(30 + i % 40);
+        client.setIdentification(String.format("17%08d", i));
+        client.setAddress("Otavalo sn y principal");
+        client.setPhone("098254785");
+        client.setPassword("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        client.setStatus(true);
+        return client;
+    }
+
+    static ClientDTO clientDto(UUID clientId) {
+        ClientDTO client = new ClientDTO();
+        client.setClientId(clientId);
+        client.setName("Jose Lema");
+        client.setGender("M");
+        client.setAge(35);
+        client.setIdentification("1700000001");
+        client.setAddress("Otavalo sn y principal");
+        client.setPhone("098254785");
+        client.setStatus(true);
+        return client;
+    }
+
+    static List<Account> accounts(int count, UUID clientId) {
+        return IntStream.range(0, count).mapToObj(i -> account(i, clientId)).toList();
+    }
+
+    // count transactions spread round-robin over the accounts
+    static List<Transaction> transactions(int count, List<Account> accounts) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> transaction(i, accounts.get(i % accounts.size())))
+                .toList();
+    }
+
+    static List<Client> clients(int count) {
+        return IntStream.range(0, count).mapToObj(Fixtures::client).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.finances.benchmarks;
+
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.client.entity.Client;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson writing and reading lists of transactions, accounts and clients, as the REST
+ * controllers and the JSON message converter do. The mapper is built like Spring Boot's
+ * (java.time support, ISO dates), and readers and writers are resolved once in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private List<Transaction> transactions;
+    private List<Account> accounts;
+    private List<Client> clients;
+    private ObjectWriter transactionsWriter;
+    private ObjectWriter accountsWriter;
+    private ObjectWriter clientsWriter;
+    private ObjectReader transactionsReader;
+    private ObjectReader accountsReader;
+    private ObjectReader clientsReader;
+    private byte[] transactionsJson;
+    private byte[] accountsJson;
+    private byte[] clientsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        accounts = Fixtures.accounts(size, UUID.randomUUID());
+        transactions = Fixtures.transactions(size, accounts);
+        clients = Fixtures.clients(size);
+
+        transactionsWriter = mapper.writerFor(new TypeReference<List<Transaction>>() {});
+        accountsWriter = mapper.writerFor(new TypeReference<List<Account>>() {});
+        clientsWriter = mapper.writerFor(new TypeReference<List<Client>>() {});
+        transactionsReader = mapper.readerFor(new TypeReference<List<Transaction>>() {});
+        accountsReader = mapper.readerFor(new TypeReference<List<Account>>() {});
+        clientsReader = mapper.readerFor(new TypeReference<List<Client>>() {});
+
+        transactionsJson = transactionsWriter.writeValueAsBytes(transactions);
+        accountsJson = accountsWriter.writeValueAsBytes(accounts);
+        clientsJson = clientsWriter.writeValueAsBytes(clients);
+    }
+
+    @Benchmark
+    public byte[] writeTransactions() throws IOException {
+        return transactionsWriter.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public List<Transaction> readTransactions() throws IOException {
+        return transactionsReader.readValue(transactionsJson);
+    }
+
+    @Benchmark
+    public byte[] writeAccounts() throws IOException {
+        return accountsWriter.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public List<Account> readAccounts() throws IOException {
+        return accountsReader.readValue(accountsJson);
+    }
+
+    @Benchmark
+    public byte[] writeClients() throws IOException {
+        return clientsWriter.writeValueAsBytes(clients);
+    }
+
+    @Benchmark
+    public List<Client> readClients() throws IOException {
+        return clientsReader.readValue(clientsJson);
+    }
+}
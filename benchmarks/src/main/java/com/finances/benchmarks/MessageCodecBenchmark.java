@@ -0,0 +1,86 @@
+package com.finances.benchmarks;
+
+import com.account.config.AccountCodecs;
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.finances.common.config.BinaryMessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON message converter against {@link BinaryMessageConverter}, plain and with every
+ * body deflated, encoding and decoding one account and a list of 100 transactions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    @Param({"json", "binary", "binary-deflate"})
+    public String format;
+
+    private MessageConverter converter;
+    private Account account;
+    private List<Transaction> transactions;
+    private Message accountMessage;
+    private Message transactionsMessage;
+
+    @Setup
+    public void setUp() {
+        converter = converter(format);
+        account = Fixtures.account(1, UUID.randomUUID());
+        transactions = Fixtures.transactions(100, List.of(account));
+        accountMessage = converter.toMessage(account, new MessageProperties());
+        transactionsMessage = converter.toMessage(transactions, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encodeAccount() {
+        return converter.toMessage(account, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decodeAccount() {
+        return converter.fromMessage(accountMessage);
+    }
+
+    @Benchmark
+    public Message encodeTransactions() {
+        return converter.toMessage(transactions, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decodeTransactions() {
+        return converter.fromMessage(transactionsMessage);
+    }
+
+    private static MessageConverter converter(String format) {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        if (format.equals("json")) {
+            return json;
+        }
+        int compressThreshold = format.equals("binary-deflate") ? 0 : Integer.MAX_VALUE;
+        return new BinaryMessageConverter(json, true, compressThreshold,
+                AccountCodecs.CLIENT, AccountCodecs.ACCOUNT, AccountCodecs.TRANSACTION).warmUp();
+    }
+}
@@ -0,0 +1,71 @@
+package com.finances.benchmarks;
+
+import com.client.entity.Client;
+import com.client.entity.Person;
+import com.finances.common.service.FieldPatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The field updates of {@code ClientService.patchClient}: the reflective lookup it used
+ * to do on every request against the {@link FieldPatcher} it uses now.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchClientBenchmark {
+
+    private static final FieldPatcher<Client> PATCHER = FieldPatcher.of(Client.class,
+            "name", "gender", "age", "identification", "address", "phone", "password", "status");
+
+    // A typical PATCH body: fields of both Client and its Person superclass
+    private final Map<String, Object> updates = Map.of("address", "Av. Amazonas 123", "phone", "0999999999",
+            "age", 41, "status", true);
+
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        client = new Client();
+    }
+
+    @Benchmark
+    public Client reflection() {
+        updates.forEach((key, value) -> {
+            try {
+                Field field;
+                try {
+                    field = Client.class.getDeclaredField(key);
+                } catch (NoSuchFieldException e) {
+                    field = Person.class.getDeclaredField(key);
+                }
+                field.setAccessible(true);
+                field.set(client, value);
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new RuntimeException("Field update failed for key: " + key, e);
+            }
+        });
+        return client;
+    }
+
+    @Benchmark
+    public Client fieldPatcher() {
+        PATCHER.apply(client, updates);
+        return client;
+    }
+}
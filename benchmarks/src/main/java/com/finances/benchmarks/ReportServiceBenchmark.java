@@ -0,0 +1,98 @@
+package com.finances.benchmarks;
+
+import com.account.entity.Account;
+import com.account.entity.Transaction;
+import com.account.repository.AccountRepository;
+import com.account.repository.TransactionRepository;
+import com.account.service.ClientServiceCommunicator;
+import com.account.service.ReportCache;
+import com.account.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Statement assembly in {@link ReportService#generateAccountStatement}: grouping the
+ * window's transactions by account, the opening and closing balances and the report
+ * maps. The repositories and the client lookup are stub-only mocks, which don't record
+ * invocations, and the lookup runs on the calling thread, so no database or broker time
+ * and no mock bookkeeping is included.
+ *
+ * {@code assemble} empties the statement cache before each call; {@code cached}
+ * measures a cache hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    @Param({"3"})
+    public int accounts;
+
+    @Param({"100", "10000"})
+    public int transactions;
+
+    private final UUID clientId = UUID.randomUUID();
+    private final LocalDateTime end = Fixtures.START.plusMonths(1);
+    private ReportService reportService;
+    private ReportCache reportCache;
+
+    @Setup
+    public void setUp() {
+        List<Account> clientAccounts = Fixtures.accounts(accounts, clientId);
+        List<Transaction> window = Fixtures.transactions(transactions, clientAccounts);
+
+        AccountRepository accountRepository = mock(AccountRepository.class, withSettings().stubOnly());
+        when(accountRepository.findByClientId(clientId)).thenReturn(clientAccounts);
+        TransactionRepository transactionRepository = mock(TransactionRepository.class, withSettings().stubOnly());
+        when(transactionRepository.findByAccountIdInAndTransactionDateBetweenOrderByTransactionDateAsc(
+                anyList(), any(), any())).thenReturn(window);
+        ClientServiceCommunicator communicator = mock(ClientServiceCommunicator.class, withSettings().stubOnly());
+        when(communicator.getClientDetails(clientId)).thenReturn(Fixtures.clientDto(clientId));
+
+        reportCache = new ReportCache(64L << 20, Duration.ofMinutes(5), Duration.ofHours(24));
+        reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(reportService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(reportService, "clientServiceCommunicator", communicator);
+        ReflectionTestUtils.setField(reportService, "reportExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(reportService, "reportCache", reportCache);
+    }
+
+    @Benchmark
+    public Map<String, Object> assemble() {
+        reportCache.invalidateAll();
+        return reportService.generateAccountStatement(clientId, Fixtures.START, end);
+    }
+
+    @Benchmark
+    public Map<String, Object> cached() {
+        return reportService.generateAccountStatement(clientId, Fixtures.START, end);
+    }
+}
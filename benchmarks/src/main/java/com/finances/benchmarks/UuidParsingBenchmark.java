@@ -0,0 +1,49 @@
+package com.finances.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the id out of the string requests the listeners answer, such as
+ * {@code GetAccountById:<uuid>} and {@code GetClientById:<uuid>}: {@code split(":")} as
+ * the listeners do, against a prefix check and {@code substring}, and the bare
+ * {@link UUID#fromString} cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidParsingBenchmark {
+
+    private static final String PREFIX = "GetAccountById:";
+
+    private final String id = UUID.randomUUID().toString();
+    private final String message = PREFIX + id;
+
+    @Benchmark
+    public UUID split() {
+        return message.startsWith(PREFIX) ? UUID.fromString(message.split(":")[1]) : null;
+    }
+
+    @Benchmark
+    public UUID substring() {
+        return message.startsWith(PREFIX) ? UUID.fromString(message.substring(PREFIX.length())) : null;
+    }
+
+    @Benchmark
+    public UUID fromString() {
+        return UUID.fromString(id);
+    }
+}
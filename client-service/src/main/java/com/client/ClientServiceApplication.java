@@ -2,12 +2,10 @@ package com.client;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.retry.annotation.EnableRetry;
 
-@SpringBootApplication
+@SpringBootApplication(scanBasePackages = {"com.client", "com.finances.common"})
 @EnableRetry
-@EnableJpaRepositories(basePackages = "com.client.repository")
 public class ClientServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,63 @@
+package com.client.config;
+
+import com.client.entity.Client;
+import com.finances.common.config.BinaryCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.finances.common.config.BinaryCodec.*;
+
+/**
+ * Binary codecs for the types client-service sends and receives over RabbitMQ. The tags
+ * are part of the wire format: account-service decodes tag 1 into its ClientDTO, so the
+ * field order of {@link #CLIENT} must match it.
+ */
+public final class ClientCodecs {
+
+    // The password hash never leaves the service, so it isn't encoded
+    public static final BinaryCodec<Client> CLIENT = new BinaryCodec<>() {
+        @Override
+        public int tag() {
+            return 1;
+        }
+
+        @Override
+        public Class<Client> type() {
+            return Client.class;
+        }
+
+        @Override
+        public void write(Client client, DataOutput out) throws IOException {
+            writeUuid(out, client.getClientId());
+            writeLong(out, client.getId());
+            writeString(out, client.getName());
+            writeString(out, client.getGender());
+            writeInteger(out, client.getAge());
+            writeString(out, client.getIdentification());
+            writeString(out, client.getAddress());
+            writeString(out, client.getPhone());
+            out.writeBoolean(client.isStatus());
+        }
+
+        @Override
+        public Client read(DataInput in) throws IOException {
+            Client client = new Client();
+            client.setClientId(readUuid(in));
+            client.setId(readLong(in));
+            client.setName(readString(in));
+            client.setGender(readString(in));
+            Integer age = readInteger(in);
+            client.setAge(age != null ? age : 0);
+            client.setIdentification(readString(in));
+            client.setAddress(readString(in));
+            client.setPhone(readString(in));
+            client.setStatus(in.readBoolean());
+            return client;
+        }
+    };
+
+    private ClientCodecs() {
+    }
+}
@@ -1,5 +1,6 @@
 package com.client.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -17,10 +18,14 @@ public class ClientServiceSecurityConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(ClientServiceSecurityConfig.class);
 
+    // Work factor of new hashes (log2 rounds); existing hashes keep the strength they were made with
+    @Value("${client.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        logger.info("Initializing BCryptPasswordEncoder");
-        return new BCryptPasswordEncoder();
+        logger.info("Initializing BCryptPasswordEncoder with strength {}", bcryptStrength);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -1,14 +1,20 @@
 package com.client.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import com.client.listener.ClientResponseListener;
+import com.finances.common.config.BinaryMessageConverter;
+import com.finances.common.listener.RabbitListenerMetrics;
 
 @Configuration
 public class RabbitMQConfig {
@@ -20,9 +26,30 @@ public class RabbitMQConfig {
     public static final String CLIENT_QUEUE = "client.queue";
     public static final String CLIENT_REQUEST_QUEUE = "client.request.queue";
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${messaging.binary.enabled:false}")
+    private boolean binaryMessages;
+
+    @Value("${messaging.binary.compress-threshold:65536}")
+    private int binaryCompressThreshold;
+
+    @Value("${messaging.binary.max-inflated-bytes:16777216}")
+    private int binaryMaxInflatedBytes;
+
+    /**
+     * Reads binary messages (see {@link BinaryMessageConverter}) and JSON; sends binary for
+     * clients only when {@code messaging.binary.enabled} is set.
+     */
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public BinaryMessageConverter messageConverter() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(new Jackson2JsonMessageConverter(),
+                binaryMessages, binaryCompressThreshold, ClientCodecs.CLIENT);
+        // account-service deduplicates by message id, so every message we send carries one
+        converter.setCreateMessageIds(true);
+        converter.setMaxInflatedBytes(binaryMaxInflatedBytes);
+        return converter.warmUp();
     }
 
     @Bean
@@ -67,13 +94,30 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(clientQueue).to(clientExchange).with(CLIENT_DELETION_ROUTING_KEY);
     }
 
+    // Replaces Spring Boot's default factory for @RabbitListener methods, to add listener metrics
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            RabbitListenerMetrics rabbitListenerMetrics) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        rabbitListenerMetrics.instrument(factory);
+        return factory;
+    }
+
     @Bean
     public SimpleMessageListenerContainer listenerContainer(ConnectionFactory connectionFactory,
-                                                            MessageListenerAdapter listenerAdapter) {
+                                                            MessageListenerAdapter listenerAdapter,
+                                                            RabbitListenerMetrics rabbitListenerMetrics) {
         SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
         container.setQueueNames("client.response.queue");
         container.setMessageListener(listenerAdapter);
+        rabbitListenerMetrics.instrument(container);
+        if (virtualThreads) {
+            // @RabbitListener containers get this from Spring Boot; this one is built by hand
+            container.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-listener-"));
+        }
         return container;
     }
 
@@ -2,13 +2,16 @@ package com.client.controller;
 
 import com.client.entity.Client;
 import com.client.service.ClientService;
+import com.finances.common.dto.KeysetPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -19,8 +22,19 @@ public class ClientController {
     private ClientService clientService;
 
     @GetMapping
-    public List<Client> getAllClients() {
-        return clientService.getAllClients();
+    public ResponseEntity<?> getAllClients(
+            @RequestParam(required = false) String ids,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            if (ids != null) {
+                return ResponseEntity.ok(clientService.getClientsByIds(parseIds(ids)));
+            }
+            UUID cursor = KeysetPage.decodeCursor(after);
+            return ResponseEntity.ok(clientService.getClientsPage(cursor, KeysetPage.clampLimit(limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{clientId}")
@@ -42,9 +56,14 @@ public class ClientController {
     }
 
     @PatchMapping("/{clientId}")
-    public ResponseEntity<Client> patchClient(@PathVariable UUID clientId, @RequestBody Map<String, Object> updates) {
-        Optional<Client> updatedClient = clientService.patchClient(clientId, updates);
-        return updatedClient.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<?> patchClient(@PathVariable UUID clientId, @RequestBody Map<String, Object> updates) {
+        try {
+            Optional<Client> updatedClient = clientService.patchClient(clientId, updates);
+            return updatedClient.<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            // Unknown or read-only field, or a value of the wrong type
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping
@@ -58,4 +77,23 @@ public class ClientController {
         clientService.deleteClient(clientId);
         return ResponseEntity.noContent().build();
     }
+
+    // Comma-separated ids; duplicates are dropped and the batch is capped like a page
+    private static Set<UUID> parseIds(String ids) {
+        Set<UUID> clientIds = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                clientIds.add(UUID.fromString(id.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid client id: " + id.trim(), e);
+            }
+        }
+        if (clientIds.size() > KeysetPage.MAX_LIMIT) {
+            throw new IllegalArgumentException("At most " + KeysetPage.MAX_LIMIT + " ids per request");
+        }
+        return clientIds;
+    }
 }
@@ -0,0 +1,50 @@
+package com.client.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event waiting to be published, written in the same transaction as the change it
+ * describes. The payload is stored already serialized, exactly as it goes on the wire.
+ */
+@Data
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    // Ids come in blocks of 500 from the pooled outbox_event_seq (a table on MySQL), so a batch
+    // of events is one JDBC insert batch. The relay publishes in id order, which is the order
+    // ids were handed out: it follows write order within an instance, not commit order.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_id")
+    @SequenceGenerator(name = "outbox_event_id", sequenceName = "outbox_event_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    // Type id header for consumers that convert with Jackson2JsonMessageConverter
+    private String payloadType;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set while a relay is publishing the event; other relays skip it until then
+    private LocalDateTime claimedUntil;
+}
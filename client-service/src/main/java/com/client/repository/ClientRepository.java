@@ -1,9 +1,11 @@
 package com.client.repository;
 
 import com.client.entity.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +15,9 @@ public interface ClientRepository extends JpaRepository<Client, String> {
 
     Optional<Client> findByClientId(UUID clientId);
 
+    // Batch lookup: one IN query for every requested id
+    List<Client> findByClientIdIn(Collection<UUID> clientIds);
+
     List<Client> findByStatus(boolean status);
 
     List<Client> findByPassword(String password);
@@ -30,4 +35,9 @@ public interface ClientRepository extends JpaRepository<Client, String> {
     List<Client> findByStatusTrue();
 
     List<Client> findByStatusFalse();
+
+    // Keyset pagination: first page, then every following page starts after the last id seen
+    List<Client> findAllByOrderByClientIdAsc(Limit limit);
+
+    List<Client> findByClientIdGreaterThanOrderByClientIdAsc(UUID clientId, Limit limit);
 }
@@ -1,19 +1,25 @@
 package com.client.service;
 
 import com.client.entity.Client;
-import com.client.entity.Person;
 import com.client.repository.ClientRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finances.common.dto.KeysetPage;
+import com.finances.common.service.FieldPatcher;
 
 import jakarta.transaction.Transactional;
 
 import com.client.exception.ResourceNotFoundException;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import java.lang.reflect.Field;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 import java.util.List;
@@ -26,26 +32,41 @@ import org.slf4j.LoggerFactory;
 @Service
 public class ClientService {
 
+    // Fields a PATCH may change; ids are not among them
+    private static final FieldPatcher<Client> CLIENT_PATCHER = FieldPatcher.of(Client.class,
+            "name", "gender", "age", "identification", "address", "phone", "password", "status");
+
     @Autowired
     private ClientRepository clientRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Clients inserted per transaction while the rest of an import is still being hashed
+    @Value("${client.import.batch-size:500}")
+    private int importBatchSize = 500;
+
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
     @Autowired
-    public ClientService(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
-    }
+    private ObjectMapper objectMapper;
+
+    // Events are recorded with the change they describe and published by OutboxRelay
+    @Autowired
+    private EventOutbox eventOutbox;
 
     public Client getClientDetails(UUID clientId) {
         String requestMessage = "GetClientById:" + clientId.toString();
         String clientJson = (String) rabbitTemplate.convertSendAndReceive("client.request.queue", requestMessage);
 
         // Parse the JSON response to Client object
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
             return objectMapper.readValue(clientJson, Client.class);
         } catch (JsonProcessingException e) {
@@ -58,6 +79,24 @@ public class ClientService {
         return clientRepository.findAll();
     }
 
+    // Method to get one keyset page of clients ordered by clientId
+    public KeysetPage<Client> getClientsPage(UUID after, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<Client> rows = after == null
+                ? clientRepository.findAllByOrderByClientIdAsc(fetch)
+                : clientRepository.findByClientIdGreaterThanOrderByClientIdAsc(after, fetch);
+        return KeysetPage.of(rows, limit, Client::getClientId);
+    }
+
+    // Method to get several clients by ID with a single query; unknown ids are skipped
+    public List<Client> getClientsByIds(Collection<UUID> clientIds) {
+        if (clientIds.isEmpty()) {
+            return List.of();
+        }
+        return clientRepository.findByClientIdIn(clientIds);
+    }
+
     // Method to get a client by ID
     public Optional<Client> getClientById(UUID clientId) {
         return clientRepository.findByClientId(clientId);
@@ -66,65 +105,58 @@ public class ClientService {
     // Create a new client and publish the creation event
     private static final Logger logger = LoggerFactory.getLogger(ClientService.class);
     
+    @Transactional
     public Client createClient(Client client) {
         String encodedPassword = passwordEncoder.encode(client.getPassword());
         client.setPassword(encodedPassword);
         logger.info("Encoded Password for client ID " + client.getClientId() + ": " + encodedPassword);
         
         Client savedClient = clientRepository.save(client);
-        rabbitTemplate.convertAndSend("client.exchange", "client.creation", savedClient);
+        eventOutbox.append("client.exchange", "client.creation", savedClient);
         return savedClient;
     }
 
+    // Passwords are hashed outside any transaction; each hashed batch is inserted in a short
+    // transaction of its own, so an import that fails midway keeps the batches already stored
     public List<Client> createClients(List<Client> clients) {
-        clients.forEach(client -> client.setPassword(passwordEncoder.encode(client.getPassword())));
-        List<Client> savedClients = clientRepository.saveAll(clients);
-    
-        // Publish an event for each client created
-        savedClients.forEach(savedClient -> 
-            rabbitTemplate.convertAndSend("client.exchange", "client.creation", savedClient)
-        );
+        List<Client> savedClients = new ArrayList<>(clients.size());
+        passwordHasher.hashPasswords(clients, importBatchSize, batch -> transactionTemplate.executeWithoutResult(status -> {
+            List<Client> saved = clientRepository.saveAll(batch);
+            // One creation event per client, stored in the same transaction as the clients
+            eventOutbox.appendAll("client.exchange", "client.creation", saved);
+            savedClients.addAll(saved);
+        }));
     
         return savedClients;
     }    
 
+    @Transactional
     public Optional<Client> patchClient(UUID clientId, Map<String, Object> updates) {
         Client client = clientRepository.findByClientId(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + clientId));
 
-        updates.forEach((key, value) -> {
-            try {
-                Field field;
-                try {
-                    // Try to get the field from the Client class first
-                    field = Client.class.getDeclaredField(key);
-                } catch (NoSuchFieldException e) {
-                    // If not found in Client, look in the superclass Person
-                    field = Person.class.getDeclaredField(key);
-                }
-                field.setAccessible(true);
-
-                if ("password".equals(key)) {
-                    value = passwordEncoder.encode((String) value); // Encrypt password if updating password
-                }
-
-                field.set(client, value);
-            } catch (NoSuchFieldException | IllegalAccessException e) {
-                logger.error("Field update failed for key: " + key, e);
-                throw new RuntimeException("Field update failed for key: " + key, e);
+        if (updates.containsKey("password")) {
+            if (!(updates.get("password") instanceof String rawPassword)) {
+                throw new IllegalArgumentException("Invalid value for field password");
             }
-        });
+            // Encrypt password if updating password
+            Map<String, Object> encoded = new HashMap<>(updates);
+            encoded.put("password", passwordEncoder.encode(rawPassword));
+            updates = encoded;
+        }
+        CLIENT_PATCHER.apply(client, updates);
 
         Client updatedClient = clientRepository.save(client);
 
-        // Publish an event to RabbitMQ for the partial update
-        rabbitTemplate.convertAndSend("client.exchange", "client.partialUpdate", updatedClient);
-        logger.info("Published partial update event to RabbitMQ for client ID: " + clientId);
+        // Record the partial update event for the outbox relay
+        eventOutbox.append("client.exchange", "client.partialUpdate", updatedClient);
+        logger.info("Recorded partial update event for client ID: " + clientId);
 
         return Optional.of(updatedClient);
     }
 
     // Update an existing client and publish the update event
+    @Transactional
     public Client updateClient(UUID clientId, Client clientDetails) {
         Client client = clientRepository.findByClientId(clientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + clientId));
@@ -142,13 +174,7 @@ public class ClientService {
         client.setStatus(clientDetails.isStatus());
 
         Client updatedClient = clientRepository.save(client);
-
-        try {
-            rabbitTemplate.convertAndSend("client.exchange", "client.update", updatedClient);
-        } catch (Exception e) {
-            logger.error("Failed to publish client update event", e);
-        }
-        
+        eventOutbox.append("client.exchange", "client.update", updatedClient);
         return updatedClient;
     }
 
@@ -161,16 +187,17 @@ public class ClientService {
         }
         clientRepository.deleteByClientId(clientId);
 
-        // Publish an event to RabbitMQ for client deletion
-        rabbitTemplate.convertAndSend("client.exchange", "client.deletion", clientId);
+        // Record the deletion event for the outbox relay
+        eventOutbox.append("client.exchange", "client.deletion", clientId);
     }
 
+    @Transactional
     public void deleteAllClients() {
         // Delete all clients from the repository
         clientRepository.deleteAll();
     
-        // Publish an event to RabbitMQ indicating bulk deletion
-        rabbitTemplate.convertAndSend("client.exchange", "client.bulkDeletion", "All clients have been deleted");
+        // Record the bulk deletion event for the outbox relay
+        eventOutbox.append("client.exchange", "client.bulkDeletion", "All clients have been deleted");
     }
     
 }
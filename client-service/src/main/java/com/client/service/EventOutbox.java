@@ -0,0 +1,57 @@
+package com.client.service;
+
+import com.client.entity.OutboxEvent;
+import com.client.repository.OutboxEventRepository;
+import com.finances.common.config.BinaryMessageConverter;
+import jakarta.transaction.Transactional;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records events in the outbox table instead of publishing them. Must be called inside
+ * the transaction that makes the change, so the event is stored if and only if the
+ * change commits; {@link OutboxRelay} publishes it afterwards.
+ */
+@Service
+public class EventOutbox {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BinaryMessageConverter messageConverter;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void append(String exchange, String routingKey, Object payload) {
+        appendAll(exchange, routingKey, List.of(payload));
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void appendAll(String exchange, String routingKey, List<?> payloads) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(payloads.stream()
+                .map(payload -> toEvent(exchange, routingKey, payload, now))
+                .toList());
+    }
+
+    private OutboxEvent toEvent(String exchange, String routingKey, Object payload, LocalDateTime createdAt) {
+        // Serialize with the template's JSON converter so the relayed message matches a direct JSON publish;
+        // the payload column is text and OutboxRelay always sends it as JSON
+        Message message = messageConverter.getJsonConverter().toMessage(payload, new MessageProperties());
+        OutboxEvent event = new OutboxEvent();
+        event.setExchange(exchange);
+        event.setRoutingKey(routingKey);
+        event.setPayload(new String(message.getBody(), StandardCharsets.UTF_8));
+        Object typeId = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+        event.setPayloadType(typeId != null ? typeId.toString() : null);
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+}
@@ -0,0 +1,112 @@
+package com.client.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes a series of events with asynchronous publisher confirms.
+ *
+ * All messages of a call go out on one channel without waiting for the broker between
+ * them. Each carries its own correlation id, and at most {@code client.events.confirm-window}
+ * of them may be unconfirmed at any time, so a large import keeps the channel busy without
+ * piling up unbounded state. The call returns once every message is confirmed and throws
+ * if any was nacked or not confirmed within {@code client.events.confirm-timeout}.
+ *
+ * Needs {@code spring.rabbitmq.publisher-confirm-type=correlated}.
+ */
+@Service
+public class EventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventPublisher.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${client.events.confirm-window:256}")
+    private int confirmWindow = 256;
+
+    @Value("${client.events.confirm-timeout:10s}")
+    private Duration confirmTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Publishes the envelopes in order and waits until the broker has confirmed them all.
+     */
+    public void publishAll(List<Envelope> envelopes) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        Semaphore window = new Semaphore(confirmWindow);
+        List<CorrelationData> sent = new ArrayList<>(envelopes.size());
+        rabbitTemplate.invoke(operations -> {
+            for (Envelope envelope : envelopes) {
+                acquire(window, deadline, sent.size());
+                String correlationId = envelope.message().getMessageProperties().getMessageId();
+                CorrelationData correlation = new CorrelationData(correlationId != null ? correlationId : UUID.randomUUID().toString());
+                correlation.getFuture().whenComplete((confirm, failure) -> window.release());
+                operations.send(envelope.exchange(), envelope.routingKey(), envelope.message(), correlation);
+                sent.add(correlation);
+            }
+            return null;
+        });
+        awaitConfirms(sent, deadline);
+    }
+
+    private void acquire(Semaphore window, long deadline, int sent) {
+        try {
+            if (!window.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new AmqpException("Timed out waiting for publisher confirms after " + sent + " messages");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for publisher confirms", e);
+        }
+    }
+
+    private void awaitConfirms(List<CorrelationData> sent, long deadline) {
+        int nacked = 0;
+        String reason = null;
+        for (CorrelationData correlation : sent) {
+            CompletableFuture<CorrelationData.Confirm> future = correlation.getFuture();
+            try {
+                CorrelationData.Confirm confirm = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!confirm.isAck()) {
+                    nacked++;
+                    reason = confirm.getReason();
+                }
+            } catch (TimeoutException e) {
+                throw new AmqpException("Publisher confirm for message " + correlation.getId()
+                        + " not received within " + confirmTimeout);
+            } catch (ExecutionException e) {
+                throw new AmqpException("Publisher confirm for message " + correlation.getId() + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmqpException("Interrupted while waiting for publisher confirms", e);
+            }
+        }
+        if (nacked > 0) {
+            throw new AmqpException(nacked + " of " + sent.size() + " messages were nacked by the broker: " + reason);
+        }
+        logger.debug("Published {} messages with confirms", sent.size());
+    }
+
+    public record Envelope(String exchange, String routingKey, Message message) {
+    }
+}
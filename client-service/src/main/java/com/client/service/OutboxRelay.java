@@ -0,0 +1,125 @@
+package com.client.service;
+
+import com.client.entity.OutboxEvent;
+import com.client.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes outbox events in id order.
+ *
+ * Every poll drains the outbox in batches of {@code client.outbox.batch-size}. A batch is
+ * claimed in a short transaction: the rows are read with SKIP LOCKED row locks and marked
+ * as claimed for {@code client.outbox.claim-timeout}, and the locks are released when the
+ * claim commits. The batch is then published with confirms outside any transaction and
+ * deleted in a second short transaction, so waiting on the broker never holds a lock. If
+ * the broker is down or does not confirm, the claim is released and the next poll sends
+ * the events again; if the instance dies, the claim lapses and any relay picks them up.
+ * Delivery is therefore at least once: consumers can drop repeats by message id, which is
+ * {@code client-service:<outbox id>}.
+ *
+ * Ordering is by id, which follows the order events were written on one instance. It is
+ * not commit order, ids from different instances come from different blocks of the
+ * sequence, and relays on several instances publish the batches they claim concurrently,
+ * so consumers must not rely on a global order across clients.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final String MESSAGE_ID_PREFIX = "client-service:";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration claimTimeout;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       EventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${client.outbox.batch-size:500}") int batchSize,
+                       @Value("${client.outbox.claim-timeout:60s}") Duration claimTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${client.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay failed, events stay queued for the next poll: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes and removes the next batch of events. Returns how many were relayed.
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        try {
+            eventPublisher.publishAll(batch.stream().map(OutboxRelay::toEnvelope).toList());
+        } catch (RuntimeException e) {
+            // Hand the events back now rather than when the claim lapses
+            try {
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.releaseClaims(ids));
+            } catch (RuntimeException releaseFailure) {
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(ids));
+        logger.debug("Relayed {} outbox events up to id {}", batch.size(), ids.get(ids.size() - 1));
+        return batch.size();
+    }
+
+    // The claim is written when the transaction commits, which also releases the row locks
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findByClaimedUntilIsNullOrClaimedUntilBeforeOrderByIdAsc(
+                now, Limit.of(batchSize));
+        LocalDateTime claimedUntil = now.plus(claimTimeout);
+        batch.forEach(event -> event.setClaimedUntil(claimedUntil));
+        return batch;
+    }
+
+    static EventPublisher.Envelope toEnvelope(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setMessageId(MESSAGE_ID_PREFIX + event.getId());
+        properties.setTimestamp(Timestamp.valueOf(event.getCreatedAt()));
+        if (event.getPayloadType() != null) {
+            properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        }
+        Message message = new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+        return new EventPublisher.Envelope(event.getExchange(), event.getRoutingKey(), message);
+    }
+}
@@ -0,0 +1,88 @@
+package com.client.service;
+
+import com.client.entity.Client;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashes the passwords of bulk imports on a dedicated work-stealing pool.
+ *
+ * BCrypt is deliberately slow (about 100 ms per hash at the default strength), so one
+ * thread hashing a large import is the bottleneck. The pool has one worker per core by
+ * default ({@code client.password.hashing-threads}) and never grows beyond that. At most
+ * {@code client.password.max-in-flight} hashes are queued at a time, so a huge import
+ * doesn't pile up tasks. Hashed clients are handed to the caller in input order and in
+ * batches, on the caller's thread, while the pool keeps hashing the ones that follow.
+ */
+@Service
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ForkJoinPool pool;
+    private final int maxInFlight;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${client.password.hashing-threads:0}") int threads,
+                          @Value("${client.password.max-in-flight:0}") int maxInFlight) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : parallelism * 4;
+        this.pool = new ForkJoinPool(parallelism, PasswordHasher::newWorker, null, true,
+                parallelism, parallelism, 1, null, 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sets each client's password to its hash and passes the clients to {@code hashedBatch}
+     * in order, {@code batchSize} at a time. If hashing or the consumer fails, the hashes
+     * still queued are cancelled and the failure is rethrown.
+     */
+    public void hashPasswords(List<Client> clients, int batchSize, Consumer<List<Client>> hashedBatch) {
+        Deque<ForkJoinTask<Client>> inFlight = new ArrayDeque<>(Math.min(maxInFlight, clients.size()));
+        List<Client> batch = new ArrayList<>(Math.min(batchSize, clients.size()));
+        int next = 0;
+        try {
+            while (next < clients.size() || !inFlight.isEmpty()) {
+                while (next < clients.size() && inFlight.size() < maxInFlight) {
+                    Client client = clients.get(next++);
+                    inFlight.add(pool.submit(() -> {
+                        client.setPassword(passwordEncoder.encode(client.getPassword()));
+                        return client;
+                    }));
+                }
+                batch.add(inFlight.poll().join());
+                if (batch.size() == batchSize) {
+                    hashedBatch.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                hashedBatch.accept(batch);
+            }
+        } finally {
+            inFlight.forEach(task -> task.cancel(false));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("password-hasher-" + worker.getPoolIndex());
+        return worker;
+    }
+}
@@ -0,0 +1,88 @@
+package com.client;
+
+import com.client.config.ClientCodecs;
+import com.client.entity.Client;
+import com.finances.common.config.BinaryMessageConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMessageConverterTest {
+
+    // account-service's BinaryMessageConverterTest decodes these bytes into a ClientDTO
+    static final String CLIENT_MESSAGE_HEX =
+            "01010111111111222233334444555566667777010000000000000007094a6f686e20446f6502"
+            + "4d01000000290b3137303030303030303110417620416d617a6f6e617320313233"
+            + "0b3039393939393939393901";
+
+    private final Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+
+    @Test
+    void toMessage_ShouldEncodeClientInTheFormatAccountServiceReads() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(json, true, 1024, ClientCodecs.CLIENT);
+
+        Message message = converter.toMessage(client(), new MessageProperties());
+
+        assertEquals(BinaryMessageConverter.CONTENT_TYPE_BINARY, message.getMessageProperties().getContentType());
+        assertEquals(CLIENT_MESSAGE_HEX, HexFormat.of().formatHex(message.getBody()));
+    }
+
+    @Test
+    void fromMessage_ShouldDecodeClient_WithoutItsPassword() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(json, true, 1024, ClientCodecs.CLIENT);
+        Client client = client();
+
+        Client decoded = (Client) converter.fromMessage(converter.toMessage(client, new MessageProperties()));
+
+        assertNull(decoded.getPassword());
+        client.setPassword(null);
+        assertEquals(client, decoded);
+    }
+
+    @Test
+    void toMessage_ShouldWriteJson_WhenBinaryIsDisabled() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(json, false, 1024, ClientCodecs.CLIENT);
+        Client client = client();
+
+        Message message = converter.toMessage(client, new MessageProperties());
+
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+        assertArrayEquals(json.toMessage(client, new MessageProperties()).getBody(), message.getBody());
+        assertEquals(client, converter.fromMessage(message));
+    }
+
+    @Test
+    void fromMessage_ShouldReject_StringLengthsLargerThanTheBody() {
+        BinaryMessageConverter converter = new BinaryMessageConverter(json, true, 1024, ClientCodecs.CLIENT);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(BinaryMessageConverter.CONTENT_TYPE_BINARY);
+        // The client's name claims 2^28 bytes
+        byte[] body = HexFormat.of().parseHex("0101011111111122223333444455556666777701000000000000000780808080010000");
+
+        MessageConversionException e = assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(new Message(body, properties)));
+        assertTrue(e.getCause().getMessage().contains("bytes left"), e.getCause().getMessage());
+    }
+
+    private static Client client() {
+        Client client = new Client();
+        client.setClientId(UUID.fromString("11111111-2222-3333-4444-555566667777"));
+        client.setId(7L);
+        client.setName("John Doe");
+        client.setGender("M");
+        client.setAge(41);
+        client.setIdentification("1700000001");
+        client.setAddress("Av Amazonas 123");
+        client.setPhone("0999999999");
+        client.setPassword("$2a$10$hash");
+        client.setStatus(true);
+        return client;
+    }
+}
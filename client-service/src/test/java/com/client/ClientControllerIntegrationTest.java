@@ -1,8 +1,10 @@
 package com.client;
 
+import com.client.config.ClientServiceSecurityConfig;
 import com.client.controller.ClientController;
 import com.client.entity.Client;
 import com.client.service.ClientService;
+import com.finances.common.dto.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -11,6 +13,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -18,12 +21,14 @@ import java.util.*;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ClientController.class)
+@Import(ClientServiceSecurityConfig.class)
 class ClientControllerIntegrationTest {
 
     @Autowired
@@ -45,15 +50,61 @@ class ClientControllerIntegrationTest {
     }
 
     @Test
-    void getAllClients_ShouldReturnClientList() throws Exception {
-        List<Client> clients = Collections.singletonList(client);
-        when(clientService.getAllClients()).thenReturn(clients);
+    void getAllClients_ShouldReturnClientPage() throws Exception {
+        KeysetPage<Client> page = new KeysetPage<>(Collections.singletonList(client), "next");
+        when(clientService.getClientsPage(null, KeysetPage.DEFAULT_LIMIT)).thenReturn(page);
+
+        mockMvc.perform(get("/clientes")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is(client.getName())))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    void getAllClients_ShouldResumeAfterCursor() throws Exception {
+        KeysetPage<Client> page = new KeysetPage<>(Collections.singletonList(client), null);
+        when(clientService.getClientsPage(clientId, 10)).thenReturn(page);
 
         mockMvc.perform(get("/clientes")
+                .param("after", KeysetPage.encodeCursor(clientId))
+                .param("limit", "10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+    }
+
+    @Test
+    void getAllClients_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/clientes")
+                .param("after", "***")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllClients_ShouldLookUpRequestedIdsInOneCall() throws Exception {
+        UUID otherId = UUID.randomUUID();
+        when(clientService.getClientsByIds(new LinkedHashSet<>(List.of(clientId, otherId))))
+                .thenReturn(Collections.singletonList(client));
+
+        mockMvc.perform(get("/clientes")
+                .param("ids", clientId + "," + otherId + "," + clientId)
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].name", is(client.getName())));
+        verify(clientService, never()).getClientsPage(any(), anyInt());
+    }
+
+    @Test
+    void getAllClients_ShouldReturnBadRequest_WhenAnIdIsInvalid() throws Exception {
+        mockMvc.perform(get("/clientes")
+                .param("ids", clientId + ",not-a-uuid")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(clientService, never()).getClientsByIds(any());
     }
 
     @Test
@@ -123,6 +174,17 @@ class ClientControllerIntegrationTest {
                 .andExpect(jsonPath("$.name", is("Patched Name")));
     }
 
+    @Test
+    void patchClient_ShouldReturnBadRequest_WhenFieldCannotBeUpdated() throws Exception {
+        when(clientService.patchClient(eq(clientId), any()))
+                .thenThrow(new IllegalArgumentException("Field cannot be updated: clientId"));
+
+        mockMvc.perform(patch("/clientes/{clientId}", clientId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"clientId\": \"" + UUID.randomUUID() + "\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void patchClient_ShouldReturnNotFound_WhenClientDoesNotExist() throws Exception {
         Map<String, Object> updates = Map.of("name", "Patched Name");
@@ -5,14 +5,22 @@ import com.client.entity.Person;
 import com.client.exception.ResourceNotFoundException;
 import com.client.repository.ClientRepository;
 import com.client.service.ClientService;
+import com.client.service.EventOutbox;
+import com.client.service.PasswordHasher;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finances.common.dto.KeysetPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 
@@ -30,6 +38,12 @@ class ClientServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private EventOutbox eventOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -39,6 +53,9 @@ class ClientServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(clientService, "passwordHasher", new PasswordHasher(passwordEncoder, 2, 8));
+        ReflectionTestUtils.setField(clientService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(clientService, "objectMapper", new ObjectMapper());
         clientId = UUID.randomUUID();
         client = new Client();
         client.setClientId(clientId);
@@ -69,6 +86,19 @@ class ClientServiceTest {
         assertEquals(client.getName(), allClients.get(0).getName());
     }
 
+    @Test
+    void getClientsPage_ShouldReturnCursor_WhenMoreRowsExist() {
+        Client extra = new Client();
+        extra.setClientId(UUID.randomUUID());
+        when(clientRepository.findAllByOrderByClientIdAsc(Limit.of(2))).thenReturn(Arrays.asList(client, extra));
+
+        KeysetPage<Client> page = clientService.getClientsPage(null, 1);
+
+        assertEquals(List.of(client), page.getItems());
+        assertEquals(clientId, KeysetPage.decodeCursor(page.getNextCursor()));
+        verify(clientRepository, never()).findAll();
+    }
+
     @Test
     void getClientById_ShouldReturnClient_WhenClientExists() {
         when(clientRepository.findByClientId(clientId)).thenReturn(Optional.of(client));
@@ -79,6 +109,24 @@ class ClientServiceTest {
         assertEquals(client.getName(), retrievedClient.get().getName());
     }
 
+    @Test
+    void getClientsByIds_ShouldUseSingleInQuery() {
+        Set<UUID> ids = Set.of(clientId, UUID.randomUUID());
+        when(clientRepository.findByClientIdIn(ids)).thenReturn(List.of(client));
+
+        List<Client> clients = clientService.getClientsByIds(ids);
+
+        assertEquals(List.of(client), clients);
+        verify(clientRepository, times(1)).findByClientIdIn(ids);
+        verify(clientRepository, never()).findByClientId(any());
+    }
+
+    @Test
+    void getClientsByIds_ShouldSkipQuery_WhenNoIdsGiven() {
+        assertTrue(clientService.getClientsByIds(Set.of()).isEmpty());
+        verifyNoInteractions(clientRepository);
+    }
+
     @Test
     void createClient_ShouldEncodePasswordAndSaveClient() {
         String encodedPassword = "encodedPassword";
@@ -88,7 +136,8 @@ class ClientServiceTest {
         Client createdClient = clientService.createClient(client);
 
         assertEquals(encodedPassword, createdClient.getPassword());
-        verify(rabbitTemplate).convertAndSend("client.exchange", "client.creation", createdClient);
+        verify(eventOutbox).append("client.exchange", "client.creation", createdClient);
+        verifyNoInteractions(rabbitTemplate);
     }
 
     @Test
@@ -103,7 +152,49 @@ class ClientServiceTest {
         List<Client> createdClients = clientService.createClients(clients);
 
         assertEquals(2, createdClients.size());
-        verify(rabbitTemplate, times(2)).convertAndSend(eq("client.exchange"), eq("client.creation"), any(Client.class));
+        verify(eventOutbox, times(1)).appendAll("client.exchange", "client.creation", clients);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void createClients_ShouldInsertHashedClientsInOrderedBatches() {
+        ReflectionTestUtils.setField(clientService, "importBatchSize", 2);
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Client imported = new Client();
+            imported.setName("client-" + i);
+            imported.setPassword("password-" + i);
+            clients.add(imported);
+        }
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+        when(clientRepository.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Client>>getArgument(0)));
+
+        List<Client> createdClients = clientService.createClients(clients);
+
+        assertEquals(clients, createdClients);
+        assertEquals("hashed:password-4", createdClients.get(4).getPassword());
+        // One short transaction per batch, each holding its clients and their events
+        verify(clientRepository, times(3)).saveAll(anyList());
+        verify(eventOutbox, times(3)).appendAll(eq("client.exchange"), eq("client.creation"), anyList());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void createClients_ShouldHashPasswordsOutsideTheTransaction() {
+        List<Client> clients = List.of(client);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> {
+            verifyNoInteractions(transactionManager);
+            return "encodedPassword";
+        });
+        when(clientRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        clientService.createClients(clients);
+
+        InOrder inOrder = inOrder(passwordEncoder, transactionManager, clientRepository);
+        inOrder.verify(passwordEncoder).encode(anyString());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(clientRepository).saveAll(anyList());
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -119,7 +210,35 @@ class ClientServiceTest {
 
         assertTrue(updatedClient.isPresent());
         assertEquals("New Address", updatedClient.get().getAddress());
-        verify(rabbitTemplate).convertAndSend("client.exchange", "client.partialUpdate", updatedClient.get());
+        verify(eventOutbox).append("client.exchange", "client.partialUpdate", updatedClient.get());
+    }
+
+    @Test
+    void patchClient_ShouldCoerceValuesAndEncodePassword() {
+        when(clientRepository.findByClientId(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.save(client)).thenReturn(client);
+        when(passwordEncoder.encode("secret")).thenReturn("encodedSecret");
+
+        clientService.patchClient(clientId, Map.of("age", "41", "status", true, "password", "secret"));
+
+        assertEquals(41, client.getAge());
+        assertTrue(client.isStatus());
+        assertEquals("encodedSecret", client.getPassword());
+    }
+
+    @Test
+    void patchClient_ShouldRejectFieldsOutsideTheAllowlistWithoutChangingTheClient() {
+        client.setAddress("Old Address");
+        when(clientRepository.findByClientId(clientId)).thenReturn(Optional.of(client));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> clientService.patchClient(clientId, Map.of("address", "New Address", "clientId", UUID.randomUUID().toString())));
+        assertThrows(IllegalArgumentException.class,
+                () -> clientService.patchClient(clientId, Map.of("address", "New Address", "age", 12.5)));
+
+        assertEquals("Old Address", client.getAddress());
+        verify(clientRepository, never()).save(any());
+        verifyNoInteractions(eventOutbox);
     }
 
     @Test
@@ -136,7 +255,18 @@ class ClientServiceTest {
 
         assertEquals("Updated Name", updatedClient.getName());
         assertEquals("encodedNewPassword", updatedClient.getPassword());
-        verify(rabbitTemplate).convertAndSend("client.exchange", "client.update", updatedClient);
+        verify(eventOutbox).append("client.exchange", "client.update", updatedClient);
+    }
+
+    @Test
+    void updateClient_ShouldFail_WhenEventCannotBeRecorded() {
+        when(clientRepository.findByClientId(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.save(client)).thenReturn(client);
+        doThrow(new IllegalStateException("outbox insert failed"))
+                .when(eventOutbox).append(anyString(), anyString(), any());
+
+        // The exception rolls back the update together with its event
+        assertThrows(IllegalStateException.class, () -> clientService.updateClient(clientId, new Client()));
     }
 
     @Test
@@ -147,7 +277,7 @@ class ClientServiceTest {
         clientService.deleteClient(clientId);
 
         verify(clientRepository).deleteByClientId(clientId);
-        verify(rabbitTemplate).convertAndSend("client.exchange", "client.deletion", clientId);
+        verify(eventOutbox).append("client.exchange", "client.deletion", clientId);
     }
 
     @Test
@@ -157,7 +287,7 @@ class ClientServiceTest {
         clientService.deleteAllClients();
 
         verify(clientRepository).deleteAll();
-        verify(rabbitTemplate).convertAndSend("client.exchange", "client.bulkDeletion", "All clients have been deleted");
+        verify(eventOutbox).append("client.exchange", "client.bulkDeletion", "All clients have been deleted");
     }
 
     @Test
@@ -0,0 +1,126 @@
+package com.client;
+
+import com.client.service.EventPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EventPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private EventPublisher eventPublisher;
+    // Plays the broker: confirms arrive on another thread, a little after each publish
+    private final ScheduledBroker broker = new ScheduledBroker();
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(rabbitTemplate);
+        });
+        eventPublisher = new EventPublisher();
+        ReflectionTestUtils.setField(eventPublisher, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(eventPublisher, "confirmWindow", 8);
+        ReflectionTestUtils.setField(eventPublisher, "confirmTimeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.executor.shutdownNow();
+    }
+
+    @Test
+    void publishAll_ShouldPipelineOnOneChannelAndWaitForEveryConfirm() {
+        doAnswer(broker.confirming(true)).when(rabbitTemplate)
+                .send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        eventPublisher.publishAll(envelopes(1000));
+
+        verify(rabbitTemplate, times(1)).invoke(any());
+        verify(rabbitTemplate, times(1000)).send(eq("client.exchange"), eq("client.creation"),
+                any(Message.class), any(CorrelationData.class));
+        assertEquals(1000, broker.confirmed.get());
+        assertTrue(broker.maxOutstanding <= 8, "outstanding confirms exceeded the window: " + broker.maxOutstanding);
+    }
+
+    @Test
+    void publishAll_ShouldThrow_WhenBrokerNacks() {
+        doAnswer(broker.confirming(false)).when(rabbitTemplate)
+                .send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        AmqpException error = assertThrows(AmqpException.class, () -> eventPublisher.publishAll(envelopes(3)));
+        assertTrue(error.getMessage().contains("3 of 3"));
+    }
+
+    @Test
+    void publishAll_ShouldThrow_WhenConfirmsDoNotArrive() {
+        ReflectionTestUtils.setField(eventPublisher, "confirmTimeout", Duration.ofMillis(200));
+
+        assertThrows(AmqpException.class, () -> eventPublisher.publishAll(envelopes(3)));
+    }
+
+    @Test
+    void publishAll_ShouldNotTouchBroker_WhenNothingToPublish() {
+        eventPublisher.publishAll(Collections.emptyList());
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private static List<EventPublisher.Envelope> envelopes(int count) {
+        List<EventPublisher.Envelope> envelopes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MessageProperties properties = new MessageProperties();
+            properties.setMessageId("client-service:" + i);
+            envelopes.add(new EventPublisher.Envelope("client.exchange", "client.creation",
+                    new Message(("{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8), properties)));
+        }
+        return envelopes;
+    }
+
+    private static final class ScheduledBroker {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger confirmed = new AtomicInteger();
+        private volatile int maxOutstanding;
+
+        private org.mockito.stubbing.Answer<Void> confirming(boolean ack) {
+            return invocation -> {
+                CorrelationData correlation = invocation.getArgument(3);
+                maxOutstanding = Math.max(maxOutstanding, outstanding.incrementAndGet());
+                executor.execute(() -> {
+                    try {
+                        TimeUnit.MICROSECONDS.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    outstanding.decrementAndGet();
+                    confirmed.incrementAndGet();
+                    correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+                });
+                return null;
+            };
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.client;
+
+import com.client.config.ClientCodecs;
+import com.client.entity.Client;
+import com.client.entity.OutboxEvent;
+import com.client.repository.OutboxEventRepository;
+import com.client.service.EventOutbox;
+import com.client.service.EventPublisher;
+import com.client.service.OutboxRelay;
+import com.finances.common.config.BinaryMessageConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private EventPublisher eventPublisher;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay outboxRelay;
+    private EventOutbox eventOutbox;
+    private final Jackson2JsonMessageConverter messageConverter = new Jackson2JsonMessageConverter();
+    // Sends binary, to check stored events stay JSON regardless
+    private final BinaryMessageConverter binaryMessageConverter =
+            new BinaryMessageConverter(messageConverter, true, 1024, ClientCodecs.CLIENT);
+
+    // Stands in for the outbox table
+    private final List<OutboxEvent> table = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger openTransactions = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        when(outboxEventRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<OutboxEvent> events = invocation.getArgument(0);
+            events.forEach(event -> event.setId(ids.incrementAndGet()));
+            table.addAll(events);
+            return events;
+        });
+        when(outboxEventRepository.findByClaimedUntilIsNullOrClaimedUntilBeforeOrderByIdAsc(
+                any(LocalDateTime.class), any(Limit.class))).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return table.stream()
+                    .filter(event -> event.getClaimedUntil() == null || event.getClaimedUntil().isBefore(now))
+                    .limit(limit.max())
+                    .collect(Collectors.toCollection(ArrayList::new));
+        });
+        when(outboxEventRepository.releaseClaims(anyList())).thenAnswer(invocation -> {
+            List<Long> released = invocation.getArgument(0);
+            table.stream().filter(event -> released.contains(event.getId())).forEach(event -> event.setClaimedUntil(null));
+            return released.size();
+        });
+        doAnswer(invocation -> {
+            List<Long> deleted = invocation.getArgument(0);
+            table.removeIf(event -> deleted.contains(event.getId()));
+            return null;
+        }).when(outboxEventRepository).deleteAllByIdInBatch(anyList());
+
+        eventPublisher = mock(EventPublisher.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            return mock(TransactionStatus.class);
+        });
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).commit(any());
+        doAnswer(invocation -> openTransactions.decrementAndGet()).when(transactionManager).rollback(any());
+        outboxRelay = new OutboxRelay(outboxEventRepository, eventPublisher, transactionManager, 2, Duration.ofSeconds(60));
+
+        eventOutbox = new EventOutbox();
+        ReflectionTestUtils.setField(eventOutbox, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(eventOutbox, "messageConverter", binaryMessageConverter);
+    }
+
+    @Test
+    void relay_ShouldPublishEventsInOrderAndRemoveThemOnceConfirmed() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        eventOutbox.append("client.exchange", "client.creation", client(first));
+        eventOutbox.append("client.exchange", "client.update", client(first));
+        eventOutbox.append("client.exchange", "client.deletion", second);
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<EventPublisher.Envelope>> batches = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher, times(2)).publishAll(batches.capture());
+        List<String> routingKeys = batches.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(EventPublisher.Envelope::routingKey)
+                .toList();
+        assertEquals(List.of("client.creation", "client.update", "client.deletion"), routingKeys);
+        assertTrue(table.isEmpty());
+        // A claim and a delete per batch
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void relay_ShouldWaitForConfirmsOutsideTheClaimTransaction() {
+        eventOutbox.append("client.exchange", "client.deletion", UUID.randomUUID());
+        doAnswer(invocation -> {
+            assertEquals(0, openTransactions.get(), "publishing inside a transaction");
+            assertNotNull(table.get(0).getClaimedUntil());
+            return null;
+        }).when(eventPublisher).publishAll(anyList());
+
+        outboxRelay.relay();
+
+        verify(eventPublisher).publishAll(anyList());
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    void relay_ShouldSkipEventsClaimedByAnotherRelay_UntilTheClaimLapses() {
+        eventOutbox.append("client.exchange", "client.deletion", UUID.randomUUID());
+        table.get(0).setClaimedUntil(LocalDateTime.now().plusMinutes(1));
+
+        outboxRelay.relay();
+        verify(eventPublisher, never()).publishAll(anyList());
+
+        table.get(0).setClaimedUntil(LocalDateTime.now().minusSeconds(1));
+        outboxRelay.relay();
+        verify(eventPublisher).publishAll(anyList());
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    void relay_ShouldKeepEvents_WhenBrokerDoesNotConfirm() {
+        eventOutbox.append("client.exchange", "client.deletion", UUID.randomUUID());
+        doThrow(new AmqpException("1 of 1 messages were nacked by the broker")).when(eventPublisher).publishAll(anyList());
+
+        assertDoesNotThrow(() -> outboxRelay.relay());
+
+        assertEquals(1, table.size());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        // Released for the next poll instead of waiting for the claim to lapse
+        assertNull(table.get(0).getClaimedUntil());
+        assertEquals(0, openTransactions.get());
+    }
+
+    @Test
+    void relay_ShouldSendTheSameMessageAsADirectPublish() {
+        Client client = client(UUID.randomUUID());
+        eventOutbox.append("client.exchange", "client.update", client);
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<EventPublisher.Envelope>> batch = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher).publishAll(batch.capture());
+        Message relayed = batch.getValue().get(0).message();
+        Message direct = messageConverter.toMessage(client, new MessageProperties());
+        assertArrayEquals(direct.getBody(), relayed.getBody());
+        Object directType = direct.getMessageProperties().getHeader("__TypeId__");
+        Object relayedType = relayed.getMessageProperties().getHeader("__TypeId__");
+        assertEquals(directType, relayedType);
+        assertEquals((Object) client, messageConverter.fromMessage(relayed));
+        assertEquals("client-service:1", relayed.getMessageProperties().getMessageId());
+    }
+
+    private static Client client(UUID clientId) {
+        Client client = new Client();
+        client.setClientId(clientId);
+        client.setName("John Doe");
+        return client;
+    }
+}
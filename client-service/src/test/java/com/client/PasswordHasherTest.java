@@ -0,0 +1,78 @@
+package com.client;
+
+import com.client.entity.Client;
+import com.client.service.PasswordHasher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PasswordHasherTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    void hashPasswords_ShouldHashInParallelAndDeliverBatchesInOrder() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 4, 8);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> slowHash(invocation.getArgument(0)));
+        List<Client> clients = clients(50);
+        List<List<Client>> batches = new ArrayList<>();
+
+        passwordHasher.hashPasswords(clients, 20, batch -> batches.add(List.copyOf(batch)));
+
+        assertEquals(List.of(20, 20, 10), batches.stream().map(List::size).toList());
+        assertEquals(clients, batches.stream().flatMap(List::stream).toList());
+        assertEquals("hashed:password-49", clients.get(49).getPassword());
+        assertTrue(maxRunning.get() > 1, "hashes should overlap");
+        assertTrue(maxRunning.get() <= 4, "pool should not grow beyond its size");
+    }
+
+    @Test
+    void hashPasswords_ShouldStopAndRethrow_WhenAHashFails() {
+        passwordHasher = new PasswordHasher(passwordEncoder, 2, 4);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> slowHash(invocation.getArgument(0)));
+        when(passwordEncoder.encode("password-3")).thenThrow(new IllegalArgumentException("bad password"));
+        List<Client> clients = clients(100);
+        List<Client> delivered = new ArrayList<>();
+
+        assertThrows(IllegalArgumentException.class, () -> passwordHasher.hashPasswords(clients, 1, delivered::addAll));
+
+        assertEquals(clients.subList(0, 3), delivered);
+        // Only the bounded window past the failure was ever submitted
+        verify(passwordEncoder, atMost(8)).encode(anyString());
+    }
+
+    private String slowHash(String password) throws InterruptedException {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(5);
+            return "hashed:" + password;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static List<Client> clients(int count) {
+        List<Client> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Client client = new Client();
+            client.setPassword("password-" + i);
+            clients.add(client);
+        }
+        return clients;
+    }
+}
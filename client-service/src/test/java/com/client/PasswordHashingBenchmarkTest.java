@@ -0,0 +1,67 @@
+package com.client;
+
+import com.client.entity.Client;
+import com.client.service.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reports BCrypt hashes per second at several strengths, on one thread and through
+ * {@link PasswordHasher}. Opt-in, because the higher strengths take a while:
+ *
+ * mvn test -Dtest=PasswordHashingBenchmarkTest -Dbenchmark=true -Dbenchmark.strengths=8,10,12
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordHashingBenchmarkTest {
+
+    private static final int HASHES = Integer.getInteger("benchmark.hashes", 200);
+
+    @Test
+    void hashPasswords_ShouldScaleWithCores() {
+        int[] strengths = Arrays.stream(System.getProperty("benchmark.strengths", "8,10,12").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d hashes per run, %d cores%n", HASHES, cores);
+
+        for (int strength : strengths) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+            PasswordHasher passwordHasher = new PasswordHasher(encoder, 0, 0);
+            try {
+                encoder.encode("warmup");
+
+                long start = System.nanoTime();
+                clients(HASHES).forEach(client -> client.setPassword(encoder.encode(client.getPassword())));
+                double serial = HASHES / ((System.nanoTime() - start) / 1e9);
+
+                start = System.nanoTime();
+                passwordHasher.hashPasswords(clients(HASHES), 500, batch -> { });
+                double pooled = HASHES / ((System.nanoTime() - start) / 1e9);
+
+                System.out.printf("strength %2d: serial %8.1f hashes/s, pool %8.1f hashes/s (%.1fx)%n",
+                        strength, serial, pooled, pooled / serial);
+                assertTrue(pooled > 0);
+            } finally {
+                passwordHasher.shutdown();
+            }
+        }
+    }
+
+    private static List<Client> clients(int count) {
+        List<Client> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Client client = new Client();
+            client.setPassword("password-" + i);
+            clients.add(client);
+        }
+        return clients;
+    }
+}
@@ -0,0 +1,229 @@
+package com.finances.common.config;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Message converter that speaks a compact binary format for the registered types, and
+ * JSON for everything else.
+ *
+ * Incoming messages are decoded by content type: {@value #CONTENT_TYPE_BINARY} goes to
+ * the binary codecs (inflated first if the content encoding is {@code deflate}), anything
+ * else to the JSON converter. Outgoing registered objects, or non-empty lists of one
+ * registered type, are written in binary only when sending binary is enabled; bodies
+ * above the compression threshold are deflated, and a deflated body that inflates past
+ * {@link #setMaxInflatedBytes the limit} is rejected as malformed. With sending disabled the converter
+ * emits exactly what the JSON converter does, so every service can learn to read the
+ * format before any starts writing it.
+ *
+ * Body layout: format version, type tag (high bit set for a list, followed by a varint
+ * count), then the fields as written by the type's {@link BinaryCodec}.
+ */
+public class BinaryMessageConverter extends AbstractMessageConverter {
+
+    public static final String CONTENT_TYPE_BINARY = "application/x-finances-binary";
+    public static final String CONTENT_ENCODING_DEFLATE = "deflate";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int LIST_FLAG = 0x80;
+    private static final int DEFAULT_MAX_INFLATED_BYTES = 16 * 1024 * 1024;
+
+    private final MessageConverter json;
+    private final boolean sendBinary;
+    private final int compressThreshold;
+    private final Map<Class<?>, BinaryCodec<?>> codecsByType = new HashMap<>();
+    private final BinaryCodec<?>[] codecsByTag = new BinaryCodec<?>[LIST_FLAG];
+    private int maxInflatedBytes = DEFAULT_MAX_INFLATED_BYTES;
+
+    public BinaryMessageConverter(MessageConverter json, boolean sendBinary, int compressThreshold,
+                                  BinaryCodec<?>... codecs) {
+        this.json = json;
+        this.sendBinary = sendBinary;
+        this.compressThreshold = compressThreshold;
+        for (BinaryCodec<?> codec : codecs) {
+            if (codec.tag() <= 0 || codec.tag() >= LIST_FLAG || codecsByTag[codec.tag()] != null) {
+                throw new IllegalArgumentException("Invalid or duplicate codec tag " + codec.tag());
+            }
+            codecsByTag[codec.tag()] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    // Guards consumers against decompression bombs; 16 MB unless set
+    public void setMaxInflatedBytes(int maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    // For payloads that must stay JSON whatever the binary setting, such as stored events
+    public MessageConverter getJsonConverter() {
+        return json;
+    }
+
+    /**
+     * Runs every codec and the JSON serializer once on an empty instance of each type, so
+     * the first real message doesn't pay for class loading and Jackson's serializer lookup.
+     */
+    public BinaryMessageConverter warmUp() {
+        for (BinaryCodec<?> codec : codecsByType.values()) {
+            Object sample;
+            try {
+                sample = codec.type().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                continue;
+            }
+            fromMessage(new Message(encode(sample, codec), binaryProperties()));
+            json.toMessage(sample, new MessageProperties());
+        }
+        return this;
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        BinaryCodec<?> codec = sendBinary ? codecFor(object) : null;
+        if (codec == null) {
+            return json.toMessage(object, messageProperties);
+        }
+        byte[] body = encode(object, codec);
+        messageProperties.setContentType(CONTENT_TYPE_BINARY);
+        if (body.length > compressThreshold) {
+            body = deflate(body);
+            messageProperties.setContentEncoding(CONTENT_ENCODING_DEFLATE);
+        }
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !CONTENT_TYPE_BINARY.equals(properties.getContentType())) {
+            return json.fromMessage(message);
+        }
+        byte[] body = message.getBody();
+        try {
+            if (CONTENT_ENCODING_DEFLATE.equals(properties.getContentEncoding())) {
+                body = inflate(body);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new MessageConversionException("Unsupported binary message version " + version);
+            }
+            int tag = in.readUnsignedByte();
+            BinaryCodec<?> codec = codecsByTag[tag & ~LIST_FLAG];
+            if (codec == null) {
+                throw new MessageConversionException("Unknown binary message type " + (tag & ~LIST_FLAG));
+            }
+            if ((tag & LIST_FLAG) == 0) {
+                return codec.read(in);
+            }
+            int size = BinaryCodec.readCount(in);
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(codec.read(in));
+            }
+            return values;
+        } catch (IOException e) {
+            throw new MessageConversionException("Malformed binary message", e);
+        }
+    }
+
+    private BinaryCodec<?> codecFor(Object object) {
+        if (object instanceof List<?> list) {
+            if (list.isEmpty() || list.get(0) == null) {
+                return null;
+            }
+            Class<?> elementType = list.get(0).getClass();
+            for (Object element : list) {
+                if (element == null || element.getClass() != elementType) {
+                    return null;
+                }
+            }
+            return codecsByType.get(elementType);
+        }
+        return object != null ? codecsByType.get(object.getClass()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] encode(Object object, BinaryCodec<?> codec) {
+        BinaryCodec<Object> writer = (BinaryCodec<Object>) codec;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            if (object instanceof List<?> list) {
+                out.writeByte(codec.tag() | LIST_FLAG);
+                BinaryCodec.writeVarInt(out, list.size());
+                for (Object element : list) {
+                    writer.write(element, out);
+                }
+            } else {
+                out.writeByte(codec.tag());
+                writer.write(object, out);
+            }
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode " + codec.type().getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to compress message", e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    // Inflated in one go: the codecs read field by field, which on an inflating stream is slow
+    private byte[] inflate(byte[] body) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxInflatedBytes, body.length * 4));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated deflated body");
+                }
+                if (out.size() + inflated > maxInflatedBytes) {
+                    throw new IOException("Inflated body exceeds " + maxInflatedBytes + " bytes");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static MessageProperties binaryProperties() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(CONTENT_TYPE_BINARY);
+        return properties;
+    }
+}
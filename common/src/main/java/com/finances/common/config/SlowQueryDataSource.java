@@ -0,0 +1,258 @@
+package com.finances.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DataSource wrapper that times every JDBC statement and logs, on the {@code sql.slow}
+ * logger, those slower than the threshold plus a random sample of the rest.
+ *
+ * An entry has the elapsed time, the row count (rows read for queries, rows affected for
+ * updates and batches), the repository method that issued the statement (or the first
+ * application method on the stack) and the SQL without bind values. A statement that is
+ * not logged costs two clock reads and a random draw; the caller lookup and the row
+ * counting only happen for the ones that are.
+ */
+public class SlowQueryDataSource extends DelegatingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger("sql.slow");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final String basePackage;
+
+    public SlowQueryDataSource(DataSource target, Duration threshold, double sampleRate, String basePackage) {
+        super(target);
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.basePackage = basePackage + ".";
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement and prepareCall carry the SQL; createStatement gets it on execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), statement, new StatementHandler(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sql;
+        // Set when a logged execute() returned a result set not yet fetched with getResultSet()
+        private Entry pending;
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (name.equals("getResultSet") && pending != null) {
+                ResultSet resultSet = (ResultSet) invoke(statement, method, args);
+                Entry entry = pending;
+                pending = null;
+                if (resultSet == null) {
+                    entry.log();
+                    return null;
+                }
+                return countRows(resultSet, entry);
+            }
+            if (name.equals("close") && pending != null) {
+                pending.log();
+                pending = null;
+            }
+            return SlowQueryDataSource.invoke(statement, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String text = args != null && args.length > 0 && args[0] instanceof String executed ? executed : sql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SlowQueryDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                Entry entry = entry(text, System.nanoTime() - start);
+                if (entry != null) {
+                    entry.log();
+                }
+                throw e;
+            }
+            Entry entry = entry(text, System.nanoTime() - start);
+            if (entry == null) {
+                return result;
+            }
+            if (result instanceof ResultSet resultSet) {
+                return countRows(resultSet, entry);
+            }
+            if (result instanceof Boolean hasResultSet) {
+                if (hasResultSet) {
+                    pending = entry;
+                } else {
+                    entry.rows = statement.getUpdateCount();
+                    entry.log();
+                }
+            } else {
+                entry.rows = rows(result);
+                entry.log();
+            }
+            return result;
+        }
+    }
+
+    private ResultSet countRows(ResultSet resultSet, Entry entry) {
+        entry.rows = 0;
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                entry.rows++;
+            } else if (method.getName().equals("close")) {
+                entry.log();
+            }
+            return result;
+        });
+    }
+
+    // Null when the statement is neither slow nor sampled
+    private Entry entry(String sql, long elapsedNanos) {
+        boolean slow = elapsedNanos >= thresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return null;
+        }
+        return new Entry(sql, elapsedNanos, slow, caller());
+    }
+
+    // The repository method on the stack, or failing that the innermost application method
+    private String caller() {
+        return STACK_WALKER.walk(frames -> {
+            String applicationMethod = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (Proxy.isProxyClass(type)) {
+                    // Spring Data repositories are JDK proxies of the application's repository interfaces
+                    for (Class<?> repository : type.getInterfaces()) {
+                        if (repository.getName().startsWith(basePackage)) {
+                            return repository.getSimpleName() + "." + frame.getMethodName();
+                        }
+                    }
+                } else if (applicationMethod == null && isApplicationClass(type.getName())) {
+                    applicationMethod = type.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return applicationMethod != null ? applicationMethod : "unknown";
+        });
+    }
+
+    private boolean isApplicationClass(String className) {
+        return className.startsWith(basePackage) && !className.startsWith(SlowQueryDataSource.class.getName())
+                && !className.contains("$$");
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        long total = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                if (count < 0) {
+                    return -1;
+                }
+                total += count;
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                if (count < 0) {
+                    return -1;
+                }
+                total += count;
+            }
+        } else {
+            return -1;
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> method.getParameterCount() == 1 ? proxy == args[0] : handler.invoke(proxy, method, args);
+                    case "hashCode" -> method.getParameterCount() == 0 ? System.identityHashCode(proxy) : handler.invoke(proxy, method, args);
+                    case "toString" -> method.getParameterCount() == 0 ? target.toString() : handler.invoke(proxy, method, args);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Entry {
+
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final String caller;
+        private long rows = -1;
+        private boolean logged;
+
+        Entry(String sql, long elapsedNanos, boolean slow, String caller) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.caller = caller;
+        }
+
+        void log() {
+            if (!logged) {
+                logged = true;
+                String rowCount = rows >= 0 ? Long.toString(rows) : "?";
+                if (slow) {
+                    logger.warn("slow {} ms, {} rows, {}: {}", elapsedNanos / 1_000_000, rowCount, caller, sql);
+                } else {
+                    logger.info("sampled {} ms, {} rows, {}: {}", elapsedNanos / 1_000_000, rowCount, caller, sql);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.finances.common.config;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Slow-query log, on in the {@code prod} profile in place of Hibernate's SQL and bind
+ * logging. Wraps the DataSource in a {@link SlowQueryDataSource}; entries go to the
+ * {@code sql.slow} logger, which logback-spring.xml routes through an asynchronous
+ * appender that drops entries rather than block when its buffer is full. Callers are
+ * reported from the package of the service's {@code @SpringBootApplication} class.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.slow-log.enabled", havingValue = "true")
+public class SlowQueryLogConfig {
+
+    // Static so wrapping the DataSource doesn't pull this configuration in early
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${sql.slow-log.threshold:200ms}") Duration threshold,
+            @Value("${sql.slow-log.sample-rate:0.001}") double sampleRate,
+            BeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    String basePackage = AutoConfigurationPackages.get(beanFactory).get(0);
+                    return new SlowQueryDataSource(dataSource, threshold, sampleRate, basePackage);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package com.finances.common.listener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.AbstractRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * RabbitMQ metrics, per queue, exported with the rest on /actuator/prometheus:
+ *
+ * - rabbitmq.listener.processing: timer (with histogram) of the listener's work on each
+ *   delivery, or each batch for batch listeners, tagged with the outcome
+ * - rabbitmq.listener.in.flight: messages the listeners are processing right now
+ * - rabbitmq.listener.utilization: share of the last poll interval this service's
+ *   consumers of the queue spent processing, from 0 (idle) to 1 (always busy)
+ * - rabbitmq.queue.messages, rabbitmq.queue.consumers: ready messages and consumers of
+ *   every declared queue, as reported by the broker at the last poll
+ *
+ * Only queues declared as named {@link Queue} beans get their own tag. Deliveries from
+ * any other queue, such as per-instance anonymous or reply queues, are tagged
+ * {@code other}, so the number of series stays fixed.
+ *
+ * Listener containers are timed by adding this as advice ({@link #instrument}); the
+ * broker is polled every {@code metrics.rabbitmq.poll-interval-ms} rather than on each
+ * scrape, so scraping never waits on RabbitMQ.
+ */
+@Component
+public class RabbitListenerMetrics implements MethodInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RabbitListenerMetrics.class);
+
+    static final String OTHER_QUEUES = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final Set<String> queues;
+    private final ObjectProvider<RabbitListenerEndpointRegistry> endpointRegistry;
+    private final ObjectProvider<AbstractMessageListenerContainer> containerBeans;
+    private final Map<String, QueueStats> stats = new ConcurrentHashMap<>();
+    private long lastPoll = System.nanoTime();
+
+    public RabbitListenerMetrics(MeterRegistry meterRegistry, AmqpAdmin amqpAdmin, List<Queue> queues,
+                                 ObjectProvider<RabbitListenerEndpointRegistry> endpointRegistry,
+                                 ObjectProvider<AbstractMessageListenerContainer> containerBeans) {
+        this.meterRegistry = meterRegistry;
+        this.amqpAdmin = amqpAdmin;
+        // Generated names (spring.gen-..., amq.gen-...) change with every instance and restart
+        this.queues = queues.stream()
+                .map(Queue::getName)
+                .filter(name -> !name.startsWith("spring.gen-") && !name.startsWith("amq.gen-"))
+                .collect(Collectors.toUnmodifiableSet());
+        this.endpointRegistry = endpointRegistry;
+        this.containerBeans = containerBeans;
+        this.queues.forEach(this::stats);
+    }
+
+    // Appended to whatever advice the factory already has (retry, for instance)
+    public void instrument(AbstractRabbitListenerContainerFactory<?> factory) {
+        factory.setAdviceChain(appendedTo(factory.getAdviceChain()));
+    }
+
+    // Same for a hand-built container, whose getAdviceChain() is not public
+    public void instrument(AbstractMessageListenerContainer container) {
+        Advice[] chain = (Advice[]) new DirectFieldAccessor(container).getPropertyValue("adviceChain");
+        container.setAdviceChain(appendedTo(chain));
+    }
+
+    // Instrumenting twice would time each delivery twice
+    private Advice[] appendedTo(Advice[] chain) {
+        if (chain == null) {
+            return new Advice[] {this};
+        }
+        if (Arrays.asList(chain).contains(this)) {
+            return chain;
+        }
+        Advice[] instrumented = Arrays.copyOf(chain, chain.length + 1);
+        instrumented[chain.length] = this;
+        return instrumented;
+    }
+
+    // Wraps ContainerDelegate.invokeListener(Channel, Object), the object being a Message or a batch of them
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object[] arguments = invocation.getArguments();
+        Object data = arguments.length > 1 ? arguments[1] : null;
+        Message first = data instanceof List<?> batch && !batch.isEmpty() ? (Message) batch.get(0)
+                : data instanceof Message message ? message : null;
+        String queue = first != null ? first.getMessageProperties().getConsumerQueue() : null;
+        if (queue == null) {
+            return invocation.proceed();
+        }
+        QueueStats queueStats = stats(tagOf(queue));
+        int messages = data instanceof List<?> batch ? batch.size() : 1;
+        queueStats.inFlight.addAndGet(messages);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            queueStats.busyNanos.add(elapsed);
+            (success ? queueStats.success : queueStats.failure).record(elapsed, TimeUnit.NANOSECONDS);
+            queueStats.inFlight.addAndGet(-messages);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.rabbitmq.poll-interval-ms:15000}")
+    public synchronized void poll() {
+        for (String queue : queues) {
+            QueueStats queueStats = stats(queue);
+            try {
+                QueueInformation info = amqpAdmin.getQueueInfo(queue);
+                queueStats.messages = info != null ? info.getMessageCount() : Double.NaN;
+                queueStats.consumers = info != null ? info.getConsumerCount() : Double.NaN;
+            } catch (AmqpException e) {
+                logger.debug("Could not read depth of queue {}: {}", queue, e.getMessage());
+                queueStats.messages = Double.NaN;
+                queueStats.consumers = Double.NaN;
+            }
+        }
+
+        long now = System.nanoTime();
+        long interval = now - lastPoll;
+        lastPoll = now;
+        Map<String, Integer> consumers = localConsumers();
+        stats.forEach((queue, queueStats) -> {
+            long busy = queueStats.busyNanos.sum();
+            long busyInInterval = busy - queueStats.lastBusyNanos;
+            queueStats.lastBusyNanos = busy;
+            int queueConsumers = consumers.getOrDefault(queue, 0);
+            queueStats.utilization = queueConsumers > 0 && interval > 0
+                    ? Math.min(1.0, (double) busyInInterval / ((double) interval * queueConsumers))
+                    : Double.NaN;
+        });
+    }
+
+    // Consumers this instance runs per queue, across @RabbitListener and hand-built containers
+    private Map<String, Integer> localConsumers() {
+        Map<String, Integer> consumers = new HashMap<>();
+        Stream<MessageListenerContainer> registered = endpointRegistry.stream()
+                .flatMap(registry -> registry.getListenerContainers().stream());
+        Stream.concat(registered, containerBeans.stream())
+                .filter(SimpleMessageListenerContainer.class::isInstance)
+                .map(SimpleMessageListenerContainer.class::cast)
+                .forEach(container -> {
+                    for (String queue : container.getQueueNames()) {
+                        consumers.merge(tagOf(queue), container.getActiveConsumerCount(), Integer::sum);
+                    }
+                });
+        return consumers;
+    }
+
+    private String tagOf(String queue) {
+        return queues.contains(queue) ? queue : OTHER_QUEUES;
+    }
+
+    private QueueStats stats(String queue) {
+        return stats.computeIfAbsent(queue, name -> new QueueStats(meterRegistry, name));
+    }
+
+    private static final class QueueStats {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder busyNanos = new LongAdder();
+        private final Timer success;
+        private final Timer failure;
+        private long lastBusyNanos;
+        private volatile double messages = Double.NaN;
+        private volatile double consumers = Double.NaN;
+        private volatile double utilization = Double.NaN;
+
+        QueueStats(MeterRegistry registry, String queue) {
+            success = timer(registry, queue, "success");
+            failure = timer(registry, queue, "failure");
+            Gauge.builder("rabbitmq.listener.in.flight", inFlight, AtomicInteger::get)
+                    .tag("queue", queue)
+                    .description("Messages being processed by this service's listeners")
+                    .register(registry);
+            Gauge.builder("rabbitmq.listener.utilization", this, stats -> stats.utilization)
+                    .tag("queue", queue)
+                    .description("Share of time this service's consumers of the queue were busy")
+                    .register(registry);
+            Gauge.builder("rabbitmq.queue.messages", this, stats -> stats.messages)
+                    .tag("queue", queue)
+                    .description("Messages ready for delivery, as reported by the broker")
+                    .register(registry);
+            Gauge.builder("rabbitmq.queue.consumers", this, stats -> stats.consumers)
+                    .tag("queue", queue)
+                    .description("Consumers of the queue across all instances, as reported by the broker")
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String queue, String result) {
+            return Timer.builder("rabbitmq.listener.processing")
+                    .tag("queue", queue)
+                    .tag("result", result)
+                    .description("Time listeners spend processing a delivery or batch")
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
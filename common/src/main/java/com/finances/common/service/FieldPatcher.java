@@ -0,0 +1,172 @@
+package com.finances.common.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Applies partial updates ({@code field -> value} maps, as PATCH bodies arrive) to an
+ * entity through its setters.
+ *
+ * The table of patchable fields is built once per entity type: each allowlisted field is
+ * resolved to a method handle for its public setter and to a coercion from the JSON value
+ * types (String, Integer, Long, Double, Boolean) to the field's type. Applying a patch is
+ * then a map lookup, a coercion and a direct handle call per key. Every value is checked
+ * before any is written, so a patch with an unknown field or a bad value changes nothing
+ * and fails with an {@link IllegalArgumentException}.
+ */
+public final class FieldPatcher<T> {
+
+    private final Map<String, Accessor> accessors;
+
+    private FieldPatcher(Map<String, Accessor> accessors) {
+        this.accessors = accessors;
+    }
+
+    /**
+     * Builds a patcher for the given fields of {@code type}, which may be declared in a
+     * superclass. Fails at startup if a field or its setter does not exist.
+     */
+    public static <T> FieldPatcher<T> of(Class<T> type, String... fields) {
+        Map<String, Accessor> accessors = new HashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (String name : fields) {
+            Class<?> fieldType = fieldType(type, name);
+            String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            try {
+                MethodHandle handle = lookup.findVirtual(type, setter, MethodType.methodType(void.class, fieldType))
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                accessors.put(name, new Accessor(name, handle, fieldType.isPrimitive(), coercion(name, fieldType)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("No public setter " + setter + " on " + type.getSimpleName(), e);
+            }
+        }
+        return new FieldPatcher<>(Map.copyOf(accessors));
+    }
+
+    public void apply(T target, Map<String, ?> updates) {
+        Accessor[] fields = new Accessor[updates.size()];
+        Object[] values = new Object[updates.size()];
+        int i = 0;
+        for (Map.Entry<String, ?> update : updates.entrySet()) {
+            Accessor accessor = accessors.get(update.getKey());
+            if (accessor == null) {
+                throw new IllegalArgumentException("Field cannot be updated: " + update.getKey());
+            }
+            fields[i] = accessor;
+            values[i++] = accessor.coerce(update.getValue());
+        }
+        for (i = 0; i < fields.length; i++) {
+            fields[i].set(target, values[i]);
+        }
+    }
+
+    private static Class<?> fieldType(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field.getType();
+                }
+            }
+        }
+        throw new IllegalStateException("No field " + name + " on " + type.getSimpleName());
+    }
+
+    private static Function<Object, Object> coercion(String name, Class<?> fieldType) {
+        if (fieldType == String.class) {
+            return value -> value instanceof String ? value : invalid(name, value);
+        }
+        if (fieldType == int.class || fieldType == Integer.class) {
+            return value -> {
+                try {
+                    return toBigDecimal(name, value).intValueExact();
+                } catch (ArithmeticException e) {
+                    return invalid(name, value);
+                }
+            };
+        }
+        if (fieldType == long.class || fieldType == Long.class) {
+            return value -> {
+                try {
+                    return toBigDecimal(name, value).longValueExact();
+                } catch (ArithmeticException e) {
+                    return invalid(name, value);
+                }
+            };
+        }
+        if (fieldType == double.class || fieldType == Double.class) {
+            return value -> value instanceof Number number ? number.doubleValue() : toBigDecimal(name, value).doubleValue();
+        }
+        if (fieldType == boolean.class || fieldType == Boolean.class) {
+            return value -> {
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                if ("true".equals(value) || "false".equals(value)) {
+                    return Boolean.valueOf((String) value);
+                }
+                return invalid(name, value);
+            };
+        }
+        if (fieldType == UUID.class) {
+            return value -> {
+                try {
+                    return value instanceof String text ? UUID.fromString(text) : invalid(name, value);
+                } catch (IllegalArgumentException e) {
+                    return invalid(name, value);
+                }
+            };
+        }
+        throw new IllegalStateException("Field " + name + " has unsupported type " + fieldType.getSimpleName());
+    }
+
+    private static BigDecimal toBigDecimal(String name, Object value) {
+        try {
+            if (value instanceof Integer || value instanceof Long) {
+                return BigDecimal.valueOf(((Number) value).longValue());
+            }
+            if (value instanceof Number number) {
+                return new BigDecimal(number.toString());
+            }
+            if (value instanceof String text) {
+                return new BigDecimal(text.trim());
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        return invalid(name, value);
+    }
+
+    private static <V> V invalid(String name, Object value) {
+        throw new IllegalArgumentException("Invalid value for field " + name + ": " + value);
+    }
+
+    private record Accessor(String name, MethodHandle setter, boolean primitive, Function<Object, Object> coercion) {
+
+        Object coerce(Object value) {
+            if (value == null) {
+                if (primitive) {
+                    throw new IllegalArgumentException("Field " + name + " cannot be null");
+                }
+                return null;
+            }
+            return coercion.apply(value);
+        }
+
+        void set(Object target, Object value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Setter for " + name + " failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.finances.common;
+
+import com.finances.common.listener.RabbitListenerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.AbstractMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RabbitListenerMetricsTest {
+
+    private static final String QUEUE = "transaction.queue";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AmqpAdmin amqpAdmin;
+    private RabbitListenerMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        amqpAdmin = mock(AmqpAdmin.class);
+        SimpleMessageListenerContainer container = mock(SimpleMessageListenerContainer.class);
+        when(container.getQueueNames()).thenReturn(new String[] {QUEUE});
+        when(container.getActiveConsumerCount()).thenReturn(2);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("messageListenerContainer", container);
+        metrics = new RabbitListenerMetrics(meterRegistry, amqpAdmin, List.of(new Queue(QUEUE), new AnonymousQueue()),
+                beans.getBeanProvider(RabbitListenerEndpointRegistry.class),
+                beans.getBeanProvider(AbstractMessageListenerContainer.class));
+    }
+
+    @Test
+    void invoke_ShouldTimeBatchesAndCountMessagesInFlight() throws Throwable {
+        MethodInvocation invocation = invocation(3);
+        when(invocation.proceed()).thenAnswer(call -> {
+            assertEquals(3.0, meterRegistry.get("rabbitmq.listener.in.flight").tag("queue", QUEUE).gauge().value());
+            return null;
+        });
+
+        metrics.invoke(invocation);
+
+        assertEquals(0.0, meterRegistry.get("rabbitmq.listener.in.flight").tag("queue", QUEUE).gauge().value());
+        assertEquals(1, meterRegistry.get("rabbitmq.listener.processing").tags("queue", QUEUE, "result", "success").timer().count());
+    }
+
+    @Test
+    void invoke_ShouldRecordFailures_AndRethrow() throws Throwable {
+        MethodInvocation invocation = invocation(1);
+        when(invocation.proceed()).thenThrow(new IllegalStateException("listener failed"));
+
+        assertThrows(IllegalStateException.class, () -> metrics.invoke(invocation));
+
+        assertEquals(1, meterRegistry.get("rabbitmq.listener.processing").tags("queue", QUEUE, "result", "failure").timer().count());
+        assertEquals(0.0, meterRegistry.get("rabbitmq.listener.in.flight").tag("queue", QUEUE).gauge().value());
+    }
+
+    @Test
+    void invoke_ShouldTagUndeclaredQueuesAsOther() throws Throwable {
+        metrics.invoke(invocation(1, "amq.gen-reply-1"));
+        metrics.invoke(invocation(1, "amq.gen-reply-2"));
+
+        assertEquals(2, meterRegistry.get("rabbitmq.listener.processing").tags("queue", "other", "result", "success").timer().count());
+        assertTrue(meterRegistry.find("rabbitmq.listener.processing").tag("queue", "amq.gen-reply-1").timers().isEmpty());
+        assertEquals(2, meterRegistry.find("rabbitmq.queue.messages").gauges().size());
+    }
+
+    @Test
+    void instrument_ShouldAppendToTheContainersAdviceChain_Once() {
+        Advice retry = mock(MethodInterceptor.class);
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+        container.setAdviceChain(retry);
+
+        metrics.instrument(container);
+        metrics.instrument(container);
+
+        assertArrayEquals(new Advice[] {retry, metrics},
+                (Advice[]) new DirectFieldAccessor(container).getPropertyValue("adviceChain"));
+    }
+
+    @Test
+    void instrument_ShouldAppendToTheFactorysAdviceChain() {
+        Advice retry = mock(MethodInterceptor.class);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setAdviceChain(retry);
+
+        metrics.instrument(factory);
+
+        assertArrayEquals(new Advice[] {retry, metrics}, factory.getAdviceChain());
+    }
+
+    @Test
+    void poll_ShouldReportQueueDepthConsumersAndUtilization() throws Throwable {
+        when(amqpAdmin.getQueueInfo(QUEUE)).thenReturn(new QueueInformation(QUEUE, 42, 5));
+        metrics.poll();
+        MethodInvocation invocation = invocation(1);
+        when(invocation.proceed()).thenAnswer(call -> {
+            TimeUnit.MILLISECONDS.sleep(50);
+            return null;
+        });
+        metrics.invoke(invocation);
+
+        metrics.poll();
+
+        assertEquals(42.0, meterRegistry.get("rabbitmq.queue.messages").tag("queue", QUEUE).gauge().value());
+        assertEquals(5.0, meterRegistry.get("rabbitmq.queue.consumers").tag("queue", QUEUE).gauge().value());
+        double utilization = meterRegistry.get("rabbitmq.listener.utilization").tag("queue", QUEUE).gauge().value();
+        assertTrue(utilization > 0 && utilization <= 0.5, "utilization " + utilization);
+    }
+
+    @Test
+    void poll_ShouldReportNaN_WhenBrokerIsUnreachable() {
+        when(amqpAdmin.getQueueInfo(QUEUE)).thenThrow(new AmqpConnectException(new RuntimeException("connection refused")));
+
+        metrics.poll();
+
+        assertTrue(Double.isNaN(meterRegistry.get("rabbitmq.queue.messages").tag("queue", QUEUE).gauge().value()));
+    }
+
+    private static MethodInvocation invocation(int messages) {
+        return invocation(messages, QUEUE);
+    }
+
+    private static MethodInvocation invocation(int messages, String queue) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        List<Message> batch = IntStream.range(0, messages)
+                .mapToObj(i -> new Message(new byte[0], properties))
+                .toList();
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getArguments()).thenReturn(new Object[] {null, messages == 1 ? batch.get(0) : batch});
+        return invocation;
+    }
+}
@@ -0,0 +1,129 @@
+package com.finances.common;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.finances.common.config.SlowQueryDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SlowQueryDataSourceTest {
+
+    private static final String SELECT = "select * from accounts where client_id=?";
+    private static final String UPDATE = "update accounts set balance=? where account_id=?";
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final Logger slowLogger = (Logger) LoggerFactory.getLogger("sql.slow");
+    private PreparedStatement select;
+    private PreparedStatement update;
+    private DataSource target;
+
+    // Stands in for a Spring Data repository proxy
+    interface SampleRepository {
+        int findByClientId() throws SQLException;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        appender.start();
+        slowLogger.addAppender(appender);
+        slowLogger.setLevel(Level.INFO);
+
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        select = mock(PreparedStatement.class);
+        when(select.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(30);
+            return resultSet;
+        });
+        update = mock(PreparedStatement.class);
+        when(update.executeBatch()).thenReturn(new int[] {1, 1});
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(SELECT)).thenReturn(select);
+        when(connection.prepareStatement(UPDATE)).thenReturn(update);
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowLogger.detachAppender(appender);
+        slowLogger.setLevel(null);
+    }
+
+    @Test
+    void logsSlowQueryWithRowCountAndRepositoryMethod() throws Exception {
+        DataSource dataSource = new SlowQueryDataSource(target, Duration.ofMillis(10), 0, "com.finances.common");
+        SampleRepository repository = (SampleRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {SampleRepository.class}, (proxy, method, args) -> readAll(dataSource));
+
+        assertEquals(3, repository.findByClientId());
+
+        assertEquals(1, appender.list.size());
+        ILoggingEvent event = appender.list.get(0);
+        assertEquals(Level.WARN, event.getLevel());
+        String message = event.getFormattedMessage();
+        assertTrue(message.contains("3 rows"), message);
+        assertTrue(message.contains("SampleRepository.findByClientId"), message);
+        assertTrue(message.endsWith(SELECT), message);
+    }
+
+    @Test
+    void skipsFastStatements_WhenNotSampled() throws Exception {
+        DataSource dataSource = new SlowQueryDataSource(target, Duration.ofSeconds(1), 0, "com.finances.common");
+
+        assertEquals(3, readAll(dataSource));
+        executeBatch(dataSource);
+
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    void logsSampledStatements_WithRowsAffectedAndFirstApplicationMethod() throws Exception {
+        DataSource dataSource = new SlowQueryDataSource(target, Duration.ofSeconds(1), 1.0, "com.finances.common");
+
+        executeBatch(dataSource);
+
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(1, messages.size());
+        assertEquals(Level.INFO, appender.list.get(0).getLevel());
+        assertTrue(messages.get(0).contains("2 rows"), messages.get(0));
+        assertTrue(messages.get(0).contains("SlowQueryDataSourceTest.executeBatch"), messages.get(0));
+    }
+
+    private static int readAll(DataSource dataSource) throws SQLException {
+        int rows = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static void executeBatch(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+            statement.addBatch();
+            statement.addBatch();
+            statement.executeBatch();
+        }
+    }
+}